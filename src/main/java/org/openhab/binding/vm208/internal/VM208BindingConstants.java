@@ -39,11 +39,34 @@ public class VM208BindingConstants {
     public static final String RELAY_6 = "relay6";
     public static final String RELAY_7 = "relay7";
     public static final String RELAY_8 = "relay8";
+    public static final String CARD = "card";
 
     // List of all Channel ids
     public static final String RELAY = "relay";
     public static final String LED = "led";
     public static final String BUTTON = "button";
+    public static final String BUTTON_EVENT = "buttonEvent";
+    public static final String PULSE = "pulse";
+    public static final String RELAY_MASK = "relayMask";
+    public static final String LED_MASK = "ledMask";
+    public static final String BUTTON_MASK = "buttonMask";
+
+    /// VM208 INT
+    public static final String BUS_UTILIZATION = "busUtilization";
+    public static final String TRANSACTION_RATE = "transactionRate";
+    public static final String TRANSACTION_LATENCY = "transactionLatency";
+    public static final String QUEUE_WAIT = "queueWait";
+    public static final String ERROR_RATE = "errorRate";
+    public static final String BYTE_RATE = "byteRate";
+    // The metrics per socket and per register class, like socket1Latency or inputErrorRate
+    public static final String SOCKET_PREFIX = "socket";
+    public static final String LATENCY_SUFFIX = "Latency";
+    public static final String ERROR_RATE_SUFFIX = "ErrorRate";
+    public static final String QUEUE_DEPTH = "queueDepth";
+    public static final String SPURIOUS_INTERRUPTS = "spuriousInterrupts";
+    public static final String UNREGISTERED_INTERRUPTS = "unregisteredInterrupts";
+    public static final String LIMITED_SOCKETS = "limitedSockets";
+    public static final String RELAY_IMAGE = "relayImage";
 
     // List of all Configuration parameters
     /// VM208 INT
@@ -54,4 +77,18 @@ public class VM208BindingConstants {
     /// VM208 EX
     public static final String LEDREFLECTSRELAYSTATUS = "ledReflectsRelayStatus";
     public static final String SOCKET = "socket";
+    public static final String PULSETIME = "pulseTime";
+    public static final String AUTOOFFTIME = "autoOffTime";
+
+    // List of all trigger events
+    /// VM208 EX
+    public static final String EVENT_PRESSED = "PRESSED";
+    public static final String EVENT_RELEASED = "RELEASED";
+    public static final String EVENT_SHORT_PRESS = "SHORT_PRESS";
+    public static final String EVENT_LONG_PRESS = "LONG_PRESS";
+    public static final String EVENT_DOUBLE_PRESS = "DOUBLE_PRESS";
+
+    // List of all Thing properties
+    /// VM208 EX
+    public static final String REGISTER_CACHE = "registerCache";
 }
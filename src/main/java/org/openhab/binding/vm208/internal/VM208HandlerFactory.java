@@ -15,20 +15,28 @@ package org.openhab.binding.vm208.internal;
 import static org.openhab.binding.vm208.internal.VM208BindingConstants.*;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.config.discovery.DiscoveryService;
 import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
+import org.eclipse.smarthome.core.thing.ThingUID;
 import org.eclipse.smarthome.core.thing.binding.BaseThingHandlerFactory;
 import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.thing.binding.ThingHandlerFactory;
-import org.openhab.binding.vm208.internal.handler.VM208BusHandler;
+import org.openhab.binding.vm208.internal.discovery.VM208ExDiscoveryService;
+import org.openhab.binding.vm208.internal.handler.VM208BusRegistry;
 import org.openhab.binding.vm208.internal.handler.VM208ExHandler;
 import org.openhab.binding.vm208.internal.handler.VM208IntHandler;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
@@ -46,14 +54,16 @@ public class VM208HandlerFactory extends BaseThingHandlerFactory {
 
     private final Logger logger = LoggerFactory.getLogger(VM208HandlerFactory.class);
 
-    private final VM208BusHandler busHandler;
+    private final VM208BusRegistry busRegistry;
+
+    private final Map<ThingUID, ServiceRegistration<?>> discoveryServiceRegistrations = new HashMap<>();
 
     private static final Set<ThingTypeUID> SUPPORTED_THING_TYPES_UIDS = new HashSet<>(
             Arrays.asList(THING_TYPE_VM208INT, THING_TYPE_VM208EX));
 
     @Activate
     public VM208HandlerFactory() {
-        this.busHandler = new VM208BusHandler();
+        this.busRegistry = new VM208BusRegistry();
     }
 
     @Override
@@ -69,10 +79,44 @@ public class VM208HandlerFactory extends BaseThingHandlerFactory {
         if (THING_TYPE_VM208EX.equals(thingTypeUID)) {
             return new VM208ExHandler(thing);
         } else if (THING_TYPE_VM208INT.equals(thingTypeUID)) {
-            return new VM208IntHandler(busHandler, (Bridge) thing);
+            VM208IntHandler handler = new VM208IntHandler(busRegistry, (Bridge) thing);
+            registerDiscoveryService(handler);
+            return handler;
         }
         logger.debug("No handler match for {}", thingTypeUID.getAsString());
 
         return null;
     }
+
+    @Override
+    protected synchronized void removeHandler(ThingHandler thingHandler) {
+        if (thingHandler instanceof VM208IntHandler) {
+            ServiceRegistration<?> registration = discoveryServiceRegistrations
+                    .remove(thingHandler.getThing().getUID());
+            if (registration != null) {
+                VM208ExDiscoveryService service = (VM208ExDiscoveryService) bundleContext
+                        .getService(registration.getReference());
+                registration.unregister();
+                if (service != null) {
+                    service.deactivate();
+                }
+            }
+        }
+    }
+
+    private synchronized void registerDiscoveryService(VM208IntHandler bridgeHandler) {
+        // every interface gets its own discovery service, which probes its sockets
+        VM208ExDiscoveryService discoveryService = new VM208ExDiscoveryService(bridgeHandler);
+        discoveryService.activate();
+        discoveryServiceRegistrations.put(bridgeHandler.getThing().getUID(),
+                bundleContext.registerService(DiscoveryService.class.getName(), discoveryService, new Hashtable<>()));
+    }
+
+    @Override
+    protected void deactivate(ComponentContext componentContext) {
+        // stop the bus workers
+        busRegistry.dispose();
+
+        super.deactivate(componentContext);
+    }
 }
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.console;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingRegistry;
+import org.eclipse.smarthome.core.thing.binding.ThingHandler;
+import org.eclipse.smarthome.io.console.Console;
+import org.eclipse.smarthome.io.console.extensions.AbstractConsoleCommandExtension;
+import org.eclipse.smarthome.io.console.extensions.ConsoleCommandExtension;
+import org.openhab.binding.vm208.internal.handler.VM208IntHandler;
+import org.openhab.binding.vm208.internal.i2c.I2CTracer;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+/**
+ * The {@link VM208ConsoleCommandExtension} provides the vm208 console commands.
+ * The trace command prints the last transfers of every I2C bus with a VM208 interface.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+@Component(service = ConsoleCommandExtension.class)
+public class VM208ConsoleCommandExtension extends AbstractConsoleCommandExtension {
+
+    private static final String TRACE = "trace";
+
+    private final ThingRegistry thingRegistry;
+
+    @Activate
+    public VM208ConsoleCommandExtension(final @Reference ThingRegistry thingRegistry) {
+        super("vm208", "Inspect the VM208 binding.");
+        this.thingRegistry = thingRegistry;
+    }
+
+    @Override
+    public void execute(String[] args, Console console) {
+        if (args.length == 0 || !TRACE.equals(args[0]) || args.length > 2) {
+            printUsage(console);
+            return;
+        }
+
+        int count = Integer.MAX_VALUE;
+        if (args.length == 2) {
+            try {
+                count = Integer.parseInt(args[1]);
+            } catch (NumberFormatException ex) {
+                console.println("Invalid number of transfers: " + args[1]);
+                return;
+            }
+        }
+
+        // interfaces on the same bus share one trace
+        Set<Integer> dumpedBuses = new HashSet<>();
+        for (Thing thing : thingRegistry.getAll()) {
+            ThingHandler handler = thing.getHandler();
+            if (handler instanceof VM208IntHandler) {
+                VM208IntHandler gateway = (VM208IntHandler) handler;
+                if (dumpedBuses.add(gateway.getBusNumber())) {
+                    dumpTrace(gateway, count, console);
+                }
+            }
+        }
+        if (dumpedBuses.isEmpty()) {
+            console.println("No VM208 interface is initialized.");
+        }
+    }
+
+    private void dumpTrace(VM208IntHandler gateway, int count, Console console) {
+        I2CTracer tracer = gateway.getTracer();
+        if (tracer == null) {
+            // the interface is not initialized or has been disposed
+            return;
+        }
+
+        console.println("Bus " + gateway.getBusNumber() + ":");
+        for (String line : tracer.dump(count)) {
+            console.println(line);
+        }
+    }
+
+    @Override
+    public List<String> getUsages() {
+        return Arrays.asList(buildCommandUsage(TRACE + " [<count>]",
+                "prints the last transfers on every I2C bus, at most " + I2CTracer.DEFAULT_CAPACITY + " per bus"));
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.discovery;
+
+import static org.openhab.binding.vm208.internal.VM208BindingConstants.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.config.discovery.AbstractDiscoveryService;
+import org.eclipse.smarthome.config.discovery.DiscoveryResult;
+import org.eclipse.smarthome.config.discovery.DiscoveryResultBuilder;
+import org.eclipse.smarthome.core.thing.ThingStatus;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.openhab.binding.vm208.internal.handler.VM208ExRegisterCache;
+import org.openhab.binding.vm208.internal.handler.VM208IntHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link VM208ExDiscoveryService} finds the VM208Ex cards in the sockets of one interface.
+ * The direction registers read by the probe are added to the result,
+ * so they do not have to be read again when the thing is initialized.
+ * The polarity registers are not read: they are assumed to be at their power-on value 0,
+ * because the binding never changes them.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class VM208ExDiscoveryService extends AbstractDiscoveryService {
+
+    private final Logger logger = LoggerFactory.getLogger(VM208ExDiscoveryService.class);
+
+    private static final int DISCOVERY_TIMEOUT = 5;
+
+    // Assumed, not read: the binding never changes the polarity, so it is at its power-on value
+    private static final int DEFAULT_POLARITY = 0x000000;
+
+    private final VM208IntHandler bridgeHandler;
+
+    public VM208ExDiscoveryService(VM208IntHandler bridgeHandler) {
+        super(Collections.singleton(THING_TYPE_VM208EX), DISCOVERY_TIMEOUT, false);
+        this.bridgeHandler = bridgeHandler;
+    }
+
+    public void activate() {
+        super.activate(null);
+    }
+
+    @Override
+    public void deactivate() {
+        super.deactivate();
+    }
+
+    @Override
+    protected void startScan() {
+        ThingUID bridgeUID = bridgeHandler.getThing().getUID();
+        if (bridgeHandler.getThing().getStatus() != ThingStatus.ONLINE) {
+            logger.debug("Not probing the sockets of {}, it is not online", bridgeUID);
+            return;
+        }
+        logger.debug("Probing the sockets of {}", bridgeUID);
+
+        int[] directions = bridgeHandler.probeSockets();
+        for (int i = 0; i < directions.length; i++) {
+            if (directions[i] >= 0) {
+                int socket = i + 1;
+                String location = VM208ExRegisterCache.location(bridgeHandler.getBusNumber(),
+                        bridgeHandler.getAddress(), socket);
+
+                Map<String, Object> properties = new HashMap<>();
+                properties.put(SOCKET, socket);
+                properties.put(REGISTER_CACHE,
+                        new VM208ExRegisterCache(location, directions[i], DEFAULT_POLARITY).toString());
+
+                ThingUID thingUID = new ThingUID(THING_TYPE_VM208EX, bridgeUID, "socket" + socket);
+                DiscoveryResult result = DiscoveryResultBuilder.create(thingUID).withThingType(THING_TYPE_VM208EX)
+                        .withBridge(bridgeUID).withProperties(properties).withRepresentationProperty(SOCKET)
+                        .withLabel("VM208Ex in socket " + socket).build();
+                thingDiscovered(result);
+            }
+        }
+    }
+
+    @Override
+    protected synchronized void stopScan() {
+        super.stopScan();
+        removeOlderResults(getTimestampOfLastScan());
+    }
+}
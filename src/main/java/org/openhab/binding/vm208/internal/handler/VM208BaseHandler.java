@@ -12,6 +12,8 @@
  */
 package org.openhab.binding.vm208.internal.handler;
 
+import java.io.IOException;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 
 /**
@@ -25,5 +27,41 @@ public interface VM208BaseHandler {
 
     public int getSocket();
 
-    public void fetchUpdate();
+    /**
+     * Configures the module and reads its states.
+     * Called by the interface during its initialization sweep, while the socket is selected.
+     *
+     * @throws IOException if the module did not respond
+     */
+    public void initializeModule() throws IOException;
+
+    /**
+     * Called by the interface after its initialization sweep, to publish the initial states.
+     *
+     * @param success false if the socket of the module could not be selected
+     */
+    public void moduleInitialized(boolean success);
+
+    /**
+     * Reads the inputs of the module and publishes the changes.
+     *
+     * @param timestamp the {@link System#nanoTime()} of the interrupt which caused the update
+     * @return true if any state has changed
+     */
+    public boolean fetchUpdate(long timestamp);
+
+    /**
+     * Called by the interface when the module stopped responding.
+     * No traffic is sent to the module until {@link #probeModule()} succeeds, then it is initialized again.
+     *
+     * @param reason the description of the failure
+     */
+    public void moduleFailed(String reason);
+
+    /**
+     * Checks with a single transfer whether the module responds again, while the socket is selected.
+     *
+     * @throws IOException if the module did not respond
+     */
+    public void probeModule() throws IOException;
 }
@@ -12,22 +12,300 @@
  */
 package org.openhab.binding.vm208.internal.handler;
 
+import java.util.ArrayDeque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.vm208.internal.i2c.I2CMetrics;
+import org.openhab.binding.vm208.internal.i2c.I2CTracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * The {@link VM208BusHandler} class is defined to lock the bus.
+ * The {@link VM208BusHandler} class is defined to lock one I2C bus.
+ * All bus operations are executed one after the other by a single worker thread.
+ * Interrupt servicing is taken before any waiting command.
  *
  * @author Simon Lamon - Initial contribution
  */
 @NonNullByDefault
 public class VM208BusHandler {
 
-    @SuppressWarnings("unused")
     private final Logger logger = LoggerFactory.getLogger(VM208BusHandler.class);
 
-    public synchronized void claimBus(Runnable command) {
-        command.run();
+    public static final int DEFAULT_QUEUE_CAPACITY = 128;
+
+    // Seconds a caller waits for its operation, so a stuck bus cannot hang the callers
+    public static final int AWAIT_TIMEOUT = 10;
+
+    /**
+     * The lane of a bus operation, interrupts are handled first
+     */
+    public enum Priority {
+        INTERRUPT,
+        COMMAND
+    }
+
+    private static class BusOperation {
+        private final @Nullable VM208BusUser user;
+        private final Runnable command;
+        private final CompletableFuture<@Nullable Void> future = new CompletableFuture<>();
+        private final long submitTime = System.nanoTime();
+
+        private BusOperation(@Nullable VM208BusUser user, Runnable command) {
+            this.user = user;
+            this.command = command;
+        }
+    }
+
+    private final int busNumber;
+    private final String name;
+    private final int queueCapacity;
+    private final I2CMetrics metrics = new I2CMetrics();
+    private final I2CTracer tracer;
+
+    private final Object queueLock = new Object();
+    private final ArrayDeque<BusOperation> interruptQueue = new ArrayDeque<>();
+    private final ArrayDeque<BusOperation> commandQueue = new ArrayDeque<>();
+    private @Nullable Thread worker;
+
+    // Only accessed by the worker thread
+    private @Nullable VM208BusUser currentUser;
+
+    public VM208BusHandler(int busNumber) {
+        this(busNumber, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public VM208BusHandler(int busNumber, int queueCapacity) {
+        this.busNumber = busNumber;
+        this.name = "vm208-bus-" + busNumber;
+        this.queueCapacity = queueCapacity;
+        this.tracer = new I2CTracer(busNumber);
+    }
+
+    public int getBusNumber() {
+        return busNumber;
+    }
+
+    /**
+     * Returns the metrics of this bus, shared by every provider on it.
+     *
+     * @return the metrics
+     */
+    public I2CMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the trace of the last transfers on this bus, shared by every provider on it.
+     *
+     * @return the tracer
+     */
+    public I2CTracer getTracer() {
+        return tracer;
+    }
+
+    public void claimBus(Runnable command) {
+        await(submit(Priority.COMMAND, null, command));
+    }
+
+    /**
+     * Claims the bus for a user which may keep a part of the bus selected afterwards
+     * and waits until the command has run.
+     * A wait which is interrupted or takes longer than {@link #AWAIT_TIMEOUT} seconds throws
+     * an {@link IllegalStateException}, the command is skipped then if it has not started yet.
+     * The previous user is asked to release the bus first, unless it is the same user.
+     *
+     * @param user the user claiming the bus
+     * @param command the command to run while holding the bus
+     */
+    public void claimBus(VM208BusUser user, Runnable command) {
+        await(submit(Priority.COMMAND, user, command));
+    }
+
+    /**
+     * Claims the bus in the given lane and waits until the command has run.
+     *
+     * @param priority the lane of the command
+     * @param user the user claiming the bus
+     * @param command the command to run while holding the bus
+     */
+    public void claimBus(Priority priority, VM208BusUser user, Runnable command) {
+        await(submit(priority, user, command));
+    }
+
+    /**
+     * Queues a command without waiting for it.
+     * When called from the worker thread itself, the command runs immediately.
+     *
+     * @param priority the lane of the command
+     * @param user the user claiming the bus, null if the command keeps nothing selected
+     * @param command the command to run while holding the bus
+     * @return a future which completes when the command has run
+     */
+    public CompletableFuture<@Nullable Void> submit(Priority priority, @Nullable VM208BusUser user,
+            Runnable command) {
+        BusOperation operation = new BusOperation(user, command);
+        if (Thread.currentThread() == worker) {
+            execute(operation);
+            return operation.future;
+        }
+
+        synchronized (queueLock) {
+            ArrayDeque<BusOperation> queue = priority == Priority.INTERRUPT ? interruptQueue : commandQueue;
+            if (queue.size() >= queueCapacity) {
+                logger.warn("Bus {} is congested, dropping {} operation", name, priority);
+                operation.future.completeExceptionally(
+                        new RejectedExecutionException("Queue of bus " + name + " is full"));
+                return operation.future;
+            }
+            queue.add(operation);
+
+            if (worker == null) {
+                Thread thread = new Thread(this::work, name);
+                thread.setDaemon(true);
+                worker = thread;
+                thread.start();
+            }
+            queueLock.notifyAll();
+        }
+        return operation.future;
+    }
+
+    /**
+     * Releases the bus if it is held by the user, for example when the user is disposed.
+     *
+     * @param user the user which no longer uses the bus
+     */
+    public void releaseBus(VM208BusUser user) {
+        await(submit(Priority.COMMAND, null, () -> {
+            if (currentUser == user) {
+                releaseCurrentUser();
+            }
+        }));
+    }
+
+    /**
+     * Returns the number of operations waiting for the bus.
+     *
+     * @return the depth of both lanes together
+     */
+    public int getQueueDepth() {
+        synchronized (queueLock) {
+            return interruptQueue.size() + commandQueue.size();
+        }
+    }
+
+    /**
+     * Stops the worker thread, operations which are still waiting are cancelled.
+     */
+    public void dispose() {
+        synchronized (queueLock) {
+            cancelAll(interruptQueue);
+            cancelAll(commandQueue);
+            Thread thread = worker;
+            worker = null;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    private void work() {
+        Thread self = Thread.currentThread();
+        try {
+            serveQueues(self);
+        } finally {
+            synchronized (queueLock) {
+                // the next submit starts a new worker
+                if (worker == self) {
+                    worker = null;
+                }
+            }
+        }
+    }
+
+    private void serveQueues(Thread self) {
+        while (true) {
+            BusOperation operation;
+            synchronized (queueLock) {
+                while (worker == self && interruptQueue.isEmpty() && commandQueue.isEmpty()) {
+                    try {
+                        queueLock.wait();
+                    } catch (InterruptedException ex) {
+                        // dispose clears the worker
+                    }
+                }
+                if (worker != self) {
+                    return;
+                }
+                operation = interruptQueue.poll();
+                if (operation == null) {
+                    operation = commandQueue.poll();
+                }
+            }
+            // an operation is cancelled when its caller stopped waiting
+            if (operation != null && !operation.future.isDone()) {
+                metrics.recordQueueWait(System.nanoTime() - operation.submitTime);
+                execute(operation);
+            }
+        }
+    }
+
+    private void execute(BusOperation operation) {
+        try {
+            VM208BusUser user = operation.user;
+            if (user == null || currentUser != user) {
+                releaseCurrentUser();
+            }
+            currentUser = user;
+            operation.command.run();
+            operation.future.complete(null);
+        } catch (Throwable ex) {
+            // an error of one command, like a LinkageError of Pi4J, must not stop the worker
+            logger.error("Bus operation failed on {}", name, ex);
+            operation.future.completeExceptionally(ex);
+        }
+    }
+
+    private void releaseCurrentUser() {
+        VM208BusUser user = currentUser;
+        if (user != null) {
+            currentUser = null;
+            user.releaseBus();
+        }
+    }
+
+    private void cancelAll(ArrayDeque<BusOperation> queue) {
+        BusOperation operation;
+        while ((operation = queue.poll()) != null) {
+            operation.future.completeExceptionally(new CancellationException("Bus " + name + " has been disposed"));
+        }
+    }
+
+    private void await(CompletableFuture<@Nullable Void> future) {
+        try {
+            future.get(AWAIT_TIMEOUT, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for bus " + name);
+        } catch (TimeoutException ex) {
+            future.cancel(false);
+            throw new IllegalStateException(
+                    "Bus " + name + " did not run the operation within " + AWAIT_TIMEOUT + " s");
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
     }
 }
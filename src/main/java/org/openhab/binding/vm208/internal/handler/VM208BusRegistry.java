@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.handler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link VM208BusRegistry} hands out one {@link VM208BusHandler} per physical I2C bus,
+ * so interfaces on different buses do not wait for each other.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class VM208BusRegistry {
+
+    private final Logger logger = LoggerFactory.getLogger(VM208BusRegistry.class);
+
+    private final Map<Integer, VM208BusHandler> buses = new HashMap<>();
+    private final Map<Integer, Integer> users = new HashMap<>();
+
+    /**
+     * Returns the bus handler of the bus, creating it for the first user.
+     *
+     * @param busNumber the number of the I2C bus
+     * @return the bus handler shared by all users of the bus
+     */
+    public synchronized VM208BusHandler acquire(int busNumber) {
+        VM208BusHandler bus = buses.get(busNumber);
+        if (bus == null) {
+            logger.debug("Creating bus handler for busNumber {}", busNumber);
+            bus = new VM208BusHandler(busNumber);
+            buses.put(busNumber, bus);
+        }
+        users.merge(busNumber, 1, Integer::sum);
+        return bus;
+    }
+
+    /**
+     * Gives the bus handler back, the last user stops it.
+     *
+     * @param bus the bus handler returned by {@link #acquire(int)}
+     */
+    public synchronized void release(VM208BusHandler bus) {
+        int busNumber = bus.getBusNumber();
+        Integer count = users.get(busNumber);
+        if (count == null || buses.get(busNumber) != bus) {
+            return;
+        }
+        if (count > 1) {
+            users.put(busNumber, count - 1);
+        } else {
+            logger.debug("Disposing bus handler for busNumber {}", busNumber);
+            users.remove(busNumber);
+            buses.remove(busNumber);
+            bus.dispose();
+        }
+    }
+
+    /**
+     * Stops every bus handler.
+     */
+    public synchronized void dispose() {
+        for (VM208BusHandler bus : buses.values()) {
+            bus.dispose();
+        }
+        buses.clear();
+        users.clear();
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.handler;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link VM208BusUser} interface is implemented by everything that can keep
+ * a part of the bus selected after its command has finished, like a multiplexer.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public interface VM208BusUser {
+
+    /**
+     * Called while holding the bus, before another user claims it.
+     * The user should deselect everything it kept selected.
+     */
+    public void releaseBus();
+}
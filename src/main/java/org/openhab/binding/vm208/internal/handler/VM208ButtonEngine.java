@@ -0,0 +1,220 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.handler;
+
+import static org.openhab.binding.vm208.internal.VM208BindingConstants.*;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link VM208ButtonEngine} turns the button snapshots of one card into gestures.
+ * All 8 buttons are debounced at once with a vertical counter: two bit planes hold a
+ * 2 bit counter per button, counting the snapshots in which the button differs from its
+ * debounced state. A button changes after {@link #DEBOUNCE_SAMPLES} differing snapshots in a row.
+ * Snapshots are taken at interrupts, and every {@link #SAMPLE_INTERVAL} milliseconds while
+ * a button is bouncing. Long and double presses are detected with timers.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class VM208ButtonEngine {
+
+    /**
+     * Receives the gestures
+     */
+    public interface Listener {
+        /**
+         * @param button the button, 0 for button 1
+         * @param event one of the button events of {@link org.openhab.binding.vm208.internal.VM208BindingConstants}
+         */
+        void buttonEvent(int button, String event);
+    }
+
+    public static final int BUTTONS = 8;
+    public static final int DEBOUNCE_SAMPLES = 4;
+    public static final int SAMPLE_INTERVAL = 5;
+
+    private final ScheduledExecutorService scheduler;
+    private final Listener listener;
+    private final Runnable sampler;
+    private final long longPressTime;
+    private final long doublePressTime;
+
+    // Vertical counter, bit n of both planes form the counter of button n
+    private int count0;
+    private int count1;
+    private int debounced;
+
+    // The time at which a button started to differ from its debounced state
+    private final long[] changeTimes = new long[BUTTONS];
+
+    // Buttons which fired a long press during this press
+    private int longPressed;
+    // Buttons released once, waiting whether a second press follows
+    private int pendingShortPresses;
+
+    private final @Nullable ScheduledFuture<?>[] longPressJobs = new ScheduledFuture<?>[BUTTONS];
+    private final @Nullable ScheduledFuture<?>[] shortPressJobs = new ScheduledFuture<?>[BUTTONS];
+    private @Nullable ScheduledFuture<?> samplerJob;
+
+    /**
+     * Creates an engine.
+     *
+     * @param scheduler runs the timers
+     * @param listener receives the gestures
+     * @param sampler takes a new snapshot and passes it to {@link #sample(int, long)}, while buttons are bouncing
+     * @param longPressTime the time in milliseconds after which a held button is a long press
+     * @param doublePressTime the time in milliseconds a second press may follow a release, 0 to disable double
+     *            presses
+     */
+    public VM208ButtonEngine(ScheduledExecutorService scheduler, Listener listener, Runnable sampler,
+            int longPressTime, int doublePressTime) {
+        this.scheduler = scheduler;
+        this.listener = listener;
+        this.sampler = sampler;
+        this.longPressTime = TimeUnit.MILLISECONDS.toNanos(longPressTime);
+        this.doublePressTime = TimeUnit.MILLISECONDS.toNanos(doublePressTime);
+    }
+
+    /**
+     * Feeds a snapshot of the buttons.
+     *
+     * @param pressed the pressed buttons, button 1 in bit 0
+     * @param timestamp the {@link System#nanoTime()} at which the snapshot was caused
+     */
+    public synchronized void sample(int pressed, long timestamp) {
+        int delta = (pressed ^ debounced) & 0xFF;
+
+        // remember when a button started to differ, a press is timed from its first edge
+        int starting = delta & ~(count0 | count1);
+        while (starting != 0) {
+            int button = Integer.numberOfTrailingZeros(starting);
+            starting &= starting - 1;
+            changeTimes[button] = timestamp;
+        }
+
+        // count the differing buttons, the others are reset
+        count1 = (count1 ^ count0) & delta;
+        count0 = ~count0 & delta;
+
+        // a counter which wrapped around has seen enough differing snapshots
+        int toggled = delta & ~(count0 | count1);
+        debounced ^= toggled;
+        while (toggled != 0) {
+            int button = Integer.numberOfTrailingZeros(toggled);
+            toggled &= toggled - 1;
+            if (((debounced >> button) & 1) == 1) {
+                pressed(button, changeTimes[button]);
+            } else {
+                released(button);
+            }
+        }
+
+        // keep sampling while a button is bouncing
+        if ((count0 | count1) != 0 && samplerJob == null) {
+            samplerJob = scheduler.schedule(this::resample, SAMPLE_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Sets the debounced buttons without reporting gestures, for example after the initialization.
+     *
+     * @param pressed the pressed buttons, button 1 in bit 0
+     */
+    public synchronized void reset(int pressed) {
+        debounced = pressed & 0xFF;
+        count0 = 0;
+        count1 = 0;
+    }
+
+    /**
+     * Stops all timers, no gestures are reported afterwards.
+     */
+    public synchronized void dispose() {
+        for (int button = 0; button < BUTTONS; button++) {
+            longPressJobs[button] = cancel(longPressJobs[button]);
+            shortPressJobs[button] = cancel(shortPressJobs[button]);
+        }
+        samplerJob = cancel(samplerJob);
+        longPressed = 0;
+        pendingShortPresses = 0;
+    }
+
+    private void resample() {
+        synchronized (this) {
+            samplerJob = null;
+        }
+        sampler.run();
+    }
+
+    private void pressed(int button, long pressTime) {
+        listener.buttonEvent(button, EVENT_PRESSED);
+
+        // a second press within the double press time, the short press is not reported
+        shortPressJobs[button] = cancel(shortPressJobs[button]);
+
+        long delay = pressTime + longPressTime - System.nanoTime();
+        longPressJobs[button] = scheduler.schedule(() -> longPress(button), Math.max(0, delay),
+                TimeUnit.NANOSECONDS);
+    }
+
+    private void released(int button) {
+        int bit = 1 << button;
+        listener.buttonEvent(button, EVENT_RELEASED);
+        longPressJobs[button] = cancel(longPressJobs[button]);
+
+        if ((longPressed & bit) != 0) {
+            longPressed &= ~bit;
+        } else if ((pendingShortPresses & bit) != 0) {
+            pendingShortPresses &= ~bit;
+            listener.buttonEvent(button, EVENT_DOUBLE_PRESS);
+        } else if (doublePressTime == 0) {
+            listener.buttonEvent(button, EVENT_SHORT_PRESS);
+        } else {
+            pendingShortPresses |= bit;
+            shortPressJobs[button] = scheduler.schedule(() -> shortPress(button), doublePressTime,
+                    TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private synchronized void longPress(int button) {
+        int bit = 1 << button;
+        longPressJobs[button] = null;
+        if ((debounced & bit) != 0) {
+            longPressed |= bit;
+            pendingShortPresses &= ~bit;
+            listener.buttonEvent(button, EVENT_LONG_PRESS);
+        }
+    }
+
+    private synchronized void shortPress(int button) {
+        int bit = 1 << button;
+        shortPressJobs[button] = null;
+        if ((pendingShortPresses & bit) != 0 && (debounced & bit) == 0) {
+            pendingShortPresses &= ~bit;
+            listener.buttonEvent(button, EVENT_SHORT_PRESS);
+        }
+    }
+
+    private static @Nullable ScheduledFuture<?> cancel(@Nullable ScheduledFuture<?> job) {
+        if (job != null) {
+            job.cancel(false);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.handler;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link VM208CircuitBreaker} class keeps a failing module off the bus.
+ * After {@link #FAILURE_THRESHOLD} failed commands in a row the breaker opens, and the commands
+ * for the module are dropped without any transfer until a probe of the module succeeds.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class VM208CircuitBreaker {
+
+    public static final int FAILURE_THRESHOLD = 3;
+
+    private int failures;
+    private boolean open;
+
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    public synchronized void recordSuccess() {
+        failures = 0;
+    }
+
+    /**
+     * Counts a failed command.
+     *
+     * @return true if the breaker has opened because of this failure
+     */
+    public synchronized boolean recordFailure() {
+        failures++;
+        if (!open && failures >= FAILURE_THRESHOLD) {
+            open = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Opens the breaker at once, for example when a module cannot be initialized.
+     *
+     * @return true if the breaker was closed before
+     */
+    public synchronized boolean open() {
+        boolean opened = !open;
+        open = true;
+        return opened;
+    }
+
+    /**
+     * Closes the breaker, after a successful probe or when another module is placed in the socket.
+     */
+    public synchronized void close() {
+        failures = 0;
+        open = false;
+    }
+}
@@ -45,6 +45,14 @@ public interface VM208Ex {
      */
     public void turnRelayOff(int channel);
 
+    /**
+     * Turns the relay on, and off again after the given time
+     *
+     * @param channel the channel number
+     * @param time the time in milliseconds
+     */
+    public void pulseRelay(int channel, int time);
+
     /**
      * Turns the led on
      *
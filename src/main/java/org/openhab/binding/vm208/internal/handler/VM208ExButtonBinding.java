@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.handler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link VM208ExButtonBinding} class maps a button of a card to an action on one of its relays or leds.
+ * The action is executed by the binding itself, while the interrupt of the button is serviced.
+ * A binding is written as {@code <button>:<relay|led><number>:<toggle|on|off>}
+ * or {@code <button>:<relay|led><number>:pulse[:<pulse time>]},
+ * for example {@code 1:relay1:toggle} or {@code 2:led2:pulse:500}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class VM208ExButtonBinding {
+
+    public static final int DEFAULT_PULSE_TIME = 1000;
+
+    /**
+     * The action on the target
+     */
+    public enum Action {
+        TOGGLE,
+        ON,
+        OFF,
+        PULSE
+    }
+
+    private final int button;
+    private final VM208ExChannelTable.Kind target;
+    private final int index;
+    private final Action action;
+    private final int pulseTime;
+
+    public VM208ExButtonBinding(int button, VM208ExChannelTable.Kind target, int index, Action action,
+            int pulseTime) {
+        this.button = button;
+        this.target = target;
+        this.index = index;
+        this.action = action;
+        this.pulseTime = pulseTime;
+    }
+
+    /**
+     * Parses the bindings of a card.
+     *
+     * @param value the bindings, separated by commas, may be null
+     * @return the bindings
+     * @throws IllegalArgumentException if a binding is invalid
+     */
+    public static List<VM208ExButtonBinding> parse(@Nullable String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<VM208ExButtonBinding> bindings = new ArrayList<>();
+        for (String binding : value.split(",")) {
+            bindings.add(parseBinding(binding.trim()));
+        }
+        return bindings;
+    }
+
+    private static VM208ExButtonBinding parseBinding(String binding) {
+        String[] parts = binding.split(":");
+        if (parts.length < 3 || parts.length > 4) {
+            throw new IllegalArgumentException("Invalid button binding '" + binding + "'");
+        }
+
+        VM208ExChannelTable.Kind target;
+        String targetName = parts[1].trim().toLowerCase(Locale.ROOT);
+        if (targetName.startsWith("relay")) {
+            target = VM208ExChannelTable.Kind.RELAY;
+        } else if (targetName.startsWith("led")) {
+            target = VM208ExChannelTable.Kind.LED;
+        } else {
+            throw new IllegalArgumentException(
+                    "Invalid target '" + parts[1] + "' in button binding '" + binding + "', use relay or led");
+        }
+
+        Action action;
+        try {
+            action = Action.valueOf(parts[2].trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid action '" + parts[2] + "' in button binding '" + binding
+                    + "', use toggle, on, off or pulse");
+        }
+        if (parts.length == 4 && action != Action.PULSE) {
+            // only a pulse has a time
+            throw new IllegalArgumentException("Invalid button binding '" + binding + "'");
+        }
+
+        try {
+            int button = parseNumber(parts[0]);
+            int index = parseNumber(targetName.substring(target.getChannelId().length()));
+            int pulseTime = parts.length == 4 ? Integer.parseInt(parts[3].trim()) : DEFAULT_PULSE_TIME;
+            if (pulseTime <= 0) {
+                throw new NumberFormatException(parts[3]);
+            }
+            return new VM208ExButtonBinding(button - 1, target, index - 1, action, pulseTime);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid number in button binding '" + binding + "'");
+        }
+    }
+
+    private static int parseNumber(String value) {
+        int number = Integer.parseInt(value.trim());
+        if (number < 1 || number > VM208ExChannelTable.CHANNELS_PER_BANK) {
+            throw new NumberFormatException(value);
+        }
+        return number;
+    }
+
+    /**
+     * @return the button, 0 for button 1
+     */
+    public int getButton() {
+        return button;
+    }
+
+    public VM208ExChannelTable.Kind getTarget() {
+        return target;
+    }
+
+    /**
+     * @return the relay or led, 0 for number 1
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * @return the time in milliseconds a pulse keeps the target on
+     */
+    public int getPulseTime() {
+        return pulseTime;
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.handler;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.openhab.binding.vm208.internal.VM208BindingConstants;
+
+/**
+ * The {@link VM208ExChannelTable} holds the prebuilt channels of one VM208Ex module.
+ * The channels are indexed by their bit in the state image: relays in bits 0-7,
+ * buttons in bits 8-15 and leds in bits 16-23.
+ * Every bank also has a mask channel, holding the whole bank as one number.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class VM208ExChannelTable {
+
+    public static final int CHANNELS_PER_BANK = 8;
+
+    private static final String[] GROUPS = new String[] { VM208BindingConstants.RELAY_1,
+            VM208BindingConstants.RELAY_2, VM208BindingConstants.RELAY_3, VM208BindingConstants.RELAY_4,
+            VM208BindingConstants.RELAY_5, VM208BindingConstants.RELAY_6, VM208BindingConstants.RELAY_7,
+            VM208BindingConstants.RELAY_8 };
+
+    /**
+     * The kind of a channel, in the order of the banks in the state image
+     */
+    public enum Kind {
+        RELAY(VM208BindingConstants.RELAY, VM208BindingConstants.RELAY_MASK),
+        BUTTON(VM208BindingConstants.BUTTON, VM208BindingConstants.BUTTON_MASK),
+        LED(VM208BindingConstants.LED, VM208BindingConstants.LED_MASK);
+
+        private final String channelId;
+        private final String maskChannelId;
+
+        private Kind(String channelId, String maskChannelId) {
+            this.channelId = channelId;
+            this.maskChannelId = maskChannelId;
+        }
+
+        public String getChannelId() {
+            return channelId;
+        }
+
+        public String getMaskChannelId() {
+            return maskChannelId;
+        }
+
+        public int getBank() {
+            return ordinal();
+        }
+    }
+
+    /**
+     * A channel of the module
+     */
+    public static class Entry {
+        private final Kind kind;
+        private final int index;
+        private final ChannelUID channelUID;
+
+        private Entry(Kind kind, int index, ChannelUID channelUID) {
+            this.kind = kind;
+            this.index = index;
+            this.channelUID = channelUID;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getBit() {
+            return kind.getBank() * CHANNELS_PER_BANK + index;
+        }
+
+        public ChannelUID getChannelUID() {
+            return channelUID;
+        }
+    }
+
+    private final Entry[] entries;
+    private final Map<ChannelUID, Entry> entriesByChannelUID;
+    private final ChannelUID[] maskChannelUIDs;
+    private final ChannelUID[] eventChannelUIDs;
+    private final ChannelUID[] pulseChannelUIDs;
+    private final Map<ChannelUID, Integer> pulsesByChannelUID;
+    private final Map<ChannelUID, Kind> masksByChannelUID;
+
+    public VM208ExChannelTable(ThingUID thingUID) {
+        Kind[] kinds = Kind.values();
+        Map<ChannelUID, Entry> entriesByChannelUID = new HashMap<>();
+        Map<ChannelUID, Kind> masksByChannelUID = new HashMap<>();
+
+        this.entries = new Entry[kinds.length * CHANNELS_PER_BANK];
+        for (Kind kind : kinds) {
+            for (int i = 0; i < CHANNELS_PER_BANK; i++) {
+                Entry entry = new Entry(kind, i, new ChannelUID(thingUID, GROUPS[i], kind.getChannelId()));
+                this.entries[entry.getBit()] = entry;
+                entriesByChannelUID.put(entry.getChannelUID(), entry);
+            }
+        }
+        this.entriesByChannelUID = Collections.unmodifiableMap(entriesByChannelUID);
+
+        this.maskChannelUIDs = new ChannelUID[kinds.length];
+        for (Kind kind : kinds) {
+            ChannelUID channelUID = new ChannelUID(thingUID, VM208BindingConstants.CARD, kind.getMaskChannelId());
+            this.maskChannelUIDs[kind.getBank()] = channelUID;
+            masksByChannelUID.put(channelUID, kind);
+        }
+        this.masksByChannelUID = Collections.unmodifiableMap(masksByChannelUID);
+
+        this.eventChannelUIDs = new ChannelUID[CHANNELS_PER_BANK];
+        for (int i = 0; i < CHANNELS_PER_BANK; i++) {
+            this.eventChannelUIDs[i] = new ChannelUID(thingUID, GROUPS[i], VM208BindingConstants.BUTTON_EVENT);
+        }
+
+        Map<ChannelUID, Integer> pulsesByChannelUID = new HashMap<>();
+        this.pulseChannelUIDs = new ChannelUID[CHANNELS_PER_BANK];
+        for (int i = 0; i < CHANNELS_PER_BANK; i++) {
+            this.pulseChannelUIDs[i] = new ChannelUID(thingUID, GROUPS[i], VM208BindingConstants.PULSE);
+            pulsesByChannelUID.put(this.pulseChannelUIDs[i], i);
+        }
+        this.pulsesByChannelUID = Collections.unmodifiableMap(pulsesByChannelUID);
+    }
+
+    public @Nullable Entry get(ChannelUID channelUID) {
+        return entriesByChannelUID.get(channelUID);
+    }
+
+    public ChannelUID getChannelUID(int bit) {
+        return entries[bit].getChannelUID();
+    }
+
+    /**
+     * Returns the bank of a mask channel.
+     *
+     * @param channelUID the channel
+     * @return the bank, null if the channel is no mask channel
+     */
+    public @Nullable Kind getMask(ChannelUID channelUID) {
+        return masksByChannelUID.get(channelUID);
+    }
+
+    public ChannelUID getMaskChannelUID(Kind kind) {
+        return maskChannelUIDs[kind.getBank()];
+    }
+
+    /**
+     * Returns the trigger channel of a button.
+     *
+     * @param index the button, 0 for button 1
+     * @return the channel
+     */
+    public ChannelUID getEventChannelUID(int index) {
+        return eventChannelUIDs[index];
+    }
+
+    /**
+     * Returns the pulse channel of a relay.
+     *
+     * @param index the relay, 0 for relay 1
+     * @return the channel
+     */
+    public ChannelUID getPulseChannelUID(int index) {
+        return pulseChannelUIDs[index];
+    }
+
+    /**
+     * Returns the relay of a pulse channel.
+     *
+     * @param channelUID the channel
+     * @return the relay, 0 for relay 1, -1 if the channel is no pulse channel
+     */
+    public int getPulse(ChannelUID channelUID) {
+        Integer index = pulsesByChannelUID.get(channelUID);
+        return index != null ? index : -1;
+    }
+}
@@ -13,6 +13,7 @@
 package org.openhab.binding.vm208.internal.handler;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 
 /**
  * The {@link VM208ExConfiguration} class contains fields mapping thing configuration parameters.
@@ -32,6 +33,31 @@ public class VM208ExConfiguration {
      */
     private boolean ledReflectsRelayStatus;
 
+    /**
+     * Time in milliseconds to collect commands before writing them at once, 0 to write immediately
+     */
+    private int coalescingTime;
+
+    /**
+     * Time in milliseconds a button is held before it is a long press
+     */
+    private int longPressTime = 1000;
+
+    /**
+     * Time in milliseconds in which a second press makes a double press, 0 to disable double presses
+     */
+    private int doublePressTime = 300;
+
+    /**
+     * Buttons switching relays or leds directly, like 1:relay1:toggle,2:led2:pulse:500
+     */
+    private @Nullable String buttonBindings;
+
+    /**
+     * Read every output write back to verify it
+     */
+    private boolean verifyWrites;
+
     public int getSocket() {
         return socket;
     }
@@ -39,4 +65,24 @@ public class VM208ExConfiguration {
     public boolean isLedReflectsRelayStatus() {
         return ledReflectsRelayStatus;
     }
+
+    public int getCoalescingTime() {
+        return coalescingTime;
+    }
+
+    public int getLongPressTime() {
+        return longPressTime;
+    }
+
+    public int getDoublePressTime() {
+        return doublePressTime;
+    }
+
+    public @Nullable String getButtonBindings() {
+        return buttonBindings;
+    }
+
+    public boolean isVerifyWrites() {
+        return verifyWrites;
+    }
 }
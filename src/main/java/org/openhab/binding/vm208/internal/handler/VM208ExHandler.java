@@ -16,17 +16,27 @@ import static org.openhab.binding.vm208.internal.VM208BindingConstants.*;
 import static org.openhab.binding.vm208.internal.i2c.TCA6424APin.*;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.eclipse.smarthome.core.thing.Bridge;
+import org.eclipse.smarthome.core.thing.Channel;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.ThingStatusDetail;
+import org.eclipse.smarthome.core.thing.ThingStatusInfo;
 import org.eclipse.smarthome.core.thing.binding.BaseThingHandler;
 import org.eclipse.smarthome.core.types.Command;
+import org.openhab.binding.vm208.internal.i2c.I2CTracer;
 import org.openhab.binding.vm208.internal.i2c.TCA6424AProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,7 +52,7 @@ import com.pi4j.io.i2c.I2CFactory.UnsupportedBusNumberException;
  * @author Simon Lamon - Initial contribution
  */
 @NonNullByDefault
-public class VM208ExHandler extends BaseThingHandler implements VM208BaseHandler, VM208Ex {
+public class VM208ExHandler extends BaseThingHandler implements VM208BaseHandler, VM208Ex, VM208TimingWheel.Target {
 
     private final Logger logger = LoggerFactory.getLogger(VM208ExHandler.class);
 
@@ -53,7 +63,45 @@ public class VM208ExHandler extends BaseThingHandler implements VM208BaseHandler
     private @NonNullByDefault({}) TCA6424AProvider tcaProvider;
 
     private int socket;
+    private String registerLocation = "";
+    private @Nullable VM208ExRegisterCache registerCache;
+
+    // Set once the interface has configured the module
+    private volatile boolean moduleReady;
+    // Set while the socket is registered at the interface
+    private boolean socketRegistered;
     private boolean ledReflectsRelayStatus;
+    private int coalescingTime;
+    private int longPressTime;
+    private int doublePressTime;
+
+    // Buttons which switch relays or leds without a round trip through openHAB
+    private static final long BINDING_HOLDOFF = TimeUnit.MILLISECONDS.toNanos(30);
+    private List<VM208ExButtonBinding> buttonBindings = Collections.emptyList();
+    private int lastPressedButtons;
+    private final long[] buttonReleaseTimes = new long[VM208ExChannelTable.CHANNELS_PER_BANK];
+
+    // Pulses and auto-off run on the timing wheel of the interface, a relay timer also switches a reflecting led
+    private final int[] pulseTimes = new int[VM208ExChannelTable.CHANNELS_PER_BANK];
+    private final int[] autoOffTimes = new int[VM208ExChannelTable.CHANNELS_PER_BANK];
+    private final VM208TimingWheel.@Nullable Timer[] relayTimers =
+            new VM208TimingWheel.Timer[VM208ExChannelTable.CHANNELS_PER_BANK];
+    private final VM208TimingWheel.@Nullable Timer[] ledTimers =
+            new VM208TimingWheel.Timer[VM208ExChannelTable.CHANNELS_PER_BANK];
+
+    private @Nullable VM208ButtonEngine buttonEngine;
+    // Gestures are only detected while a button event channel is linked
+    private volatile boolean buttonEventsLinked;
+
+    // Commands collected during the coalescing time, written at once afterwards
+    private final Object pendingOutputsLock = new Object();
+    private int pendingOutputImage;
+    private int pendingOutputMask;
+    private @Nullable ScheduledFuture<?> pendingOutputsJob;
+
+    // Last published states: relays in bits 0-7, buttons in bits 8-15 and leds in bits 16-23
+    private int publishedImage;
+    private boolean publishedImageValid;
 
     private static final Pin[] RELAY_PIN_MAP = new Pin[] { TCA6424A_P00, TCA6424A_P01, TCA6424A_P02, TCA6424A_P03,
             TCA6424A_P04, TCA6424A_P05, TCA6424A_P06, TCA6424A_P07 };
@@ -64,19 +112,47 @@ public class VM208ExHandler extends BaseThingHandler implements VM208BaseHandler
     private static final Pin[] LED_PIN_MAP = new Pin[] { TCA6424A_P20, TCA6424A_P21, TCA6424A_P22, TCA6424A_P23,
             TCA6424A_P24, TCA6424A_P25, TCA6424A_P26, TCA6424A_P27 };
 
-    private static final String[] RELAY_CHANNELS = new String[] { RELAY_1, RELAY_2, RELAY_3, RELAY_4, RELAY_5, RELAY_6,
-            RELAY_7, RELAY_8 };
+    // Buttons and leds are active low, inverting them makes every set bit an ON state
+    private static final int ACTIVE_LOW_MASK = 0xFFFF00;
+    private static final int STATE_IMAGE_MASK = 0xFFFFFF;
 
     // This is hard coded in the module
-    private static final int BASE_ADDRESS = 0x23;
+    public static final int BASE_ADDRESS = 0x23;
+
+    // The buttons are inputs, relays and leds are outputs
+    private static final int DIRECTION_IMAGE = 0x00FF00;
+
+    private final VM208ExChannelTable channelTable;
+
+    private static final VM208ExChannelTable.Kind[] BANKS = VM208ExChannelTable.Kind.values();
+
+    // Prebuilt bus commands, so switching does not allocate
+    private final VM208SocketCommand[] relayOnCommands = new VM208SocketCommand[VM208ExChannelTable.CHANNELS_PER_BANK];
+    private final VM208SocketCommand[] relayOffCommands = new VM208SocketCommand[VM208ExChannelTable.CHANNELS_PER_BANK];
+    private final VM208SocketCommand[] ledOnCommands = new VM208SocketCommand[VM208ExChannelTable.CHANNELS_PER_BANK];
+    private final VM208SocketCommand[] ledOffCommands = new VM208SocketCommand[VM208ExChannelTable.CHANNELS_PER_BANK];
 
     public VM208ExHandler(Thing thing) {
         super(thing);
+
+        this.channelTable = new VM208ExChannelTable(thing.getUID());
+        for (int i = 0; i < VM208ExChannelTable.CHANNELS_PER_BANK; i++) {
+            int channel = i;
+            this.relayOnCommands[i] = () -> switchRelayWithoutLock(channel, true);
+            this.relayOffCommands[i] = () -> switchRelayWithoutLock(channel, false);
+            this.ledOnCommands[i] = () -> turnLedOnWithoutLock(channel);
+            this.ledOffCommands[i] = () -> turnLedOffWithoutLock(channel);
+        }
     }
 
     @Override
     public void initialize() {
-        checkConfiguration();
+        try {
+            checkConfiguration();
+        } catch (IllegalArgumentException ex) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, ex.getMessage());
+            return;
+        }
 
         Bridge bridge = this.getBridge();
         if (bridge == null) {
@@ -87,27 +163,36 @@ public class VM208ExHandler extends BaseThingHandler implements VM208BaseHandler
 
         gateway = (VM208IntHandler) bridge.getHandler();
         if (gateway != null) {
+            if (bridge.getStatus() != ThingStatus.ONLINE) {
+                // the bus of the interface is not open, the card is set up when it comes online
+                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.BRIDGE_OFFLINE);
+                return;
+            }
             try {
                 tcaProvider = initializeTcaProvider(gateway.getBusNumber(), BASE_ADDRESS);
             } catch (UnsupportedBusNumberException | IOException ex) {
                 updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, ex.toString());
             }
             if (tcaProvider != null) {
+                tcaProvider.setMetrics(gateway.getMetrics(), socket);
+                tcaProvider.setVerifyWrites(config.isVerifyWrites());
+                I2CTracer tracer = gateway.getTracer();
+                if (tracer != null) {
+                    tcaProvider.setTracer(tracer);
+                }
+                registerLocation = VM208ExRegisterCache.location(gateway.getBusNumber(), gateway.getAddress(),
+                        socket);
+                registerCache = VM208ExRegisterCache.parse(thing.getProperties().get(REGISTER_CACHE),
+                        registerLocation);
+                moduleReady = false;
+                buttonEngine = new VM208ButtonEngine(scheduler, this::triggerButtonEvent, this::resampleButtons,
+                        longPressTime, doublePressTime);
+
+                // the interface configures and reads all its modules in one sweep
                 gateway.registerSocket(this);
-
-                gateway.sendToSocket(this, () -> {
-                    // set all pins to output
-                    boolean deviceNeedsInitialization = tcaProvider.setDirectionSettings(0x00, 0xFF, 0x00);
-                    if (deviceNeedsInitialization) {
-                        // turn channels off
-                        tcaProvider.setOutput0Settings(0x00);
-                        tcaProvider.setOutput2Settings(0xFF);
-                    }
-                });
-
-                this.fetchInitialStates();
-
-                updateStatus(ThingStatus.ONLINE);
+                socketRegistered = true;
+                updateStatus(ThingStatus.UNKNOWN);
+                gateway.initializeSocket(this);
             }
         } else {
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR,
@@ -116,11 +201,122 @@ public class VM208ExHandler extends BaseThingHandler implements VM208BaseHandler
     }
 
     @Override
-    public void channelLinked(ChannelUID channelUID) {
-        // can be overridden by subclasses
-        // standard behavior is to refresh the linked channel,
-        // so the newly linked items will receive a state update.
-        // handleCommand(channelUID, RefreshType.REFRESH);
+    public void bridgeStatusChanged(ThingStatusInfo bridgeStatusInfo) {
+        if (this.tcaProvider == null) {
+            // initialize stopped before the card was set up
+            if (bridgeStatusInfo.getStatus() == ThingStatus.ONLINE
+                    && thing.getStatusInfo().getStatusDetail() == ThingStatusDetail.BRIDGE_OFFLINE) {
+                initialize();
+            }
+            return;
+        }
+        super.bridgeStatusChanged(bridgeStatusInfo);
+    }
+
+    @Override
+    public synchronized void channelLinked(ChannelUID channelUID) {
+        updateButtonEventsLinked();
+
+        // unlinked channels are skipped when publishing,
+        // so the newly linked item receives the last known state
+        if (!publishedImageValid) {
+            return;
+        }
+
+        VM208ExChannelTable.Entry entry = channelTable.get(channelUID);
+        if (entry != null) {
+            int bit = entry.getBit();
+            this.updateState(channelUID, ((publishedImage >> bit) & 1) == 1 ? OnOffType.ON : OnOffType.OFF);
+        }
+        VM208ExChannelTable.Kind mask = channelTable.getMask(channelUID);
+        if (mask != null) {
+            this.updateState(channelUID, new DecimalType(bankOf(publishedImage, mask)));
+        }
+    }
+
+    @Override
+    public void channelUnlinked(ChannelUID channelUID) {
+        updateButtonEventsLinked();
+    }
+
+    private void updateButtonEventsLinked() {
+        boolean linked = false;
+        for (int i = 0; i < VM208ExChannelTable.CHANNELS_PER_BANK; i++) {
+            linked |= isLinked(channelTable.getEventChannelUID(i));
+        }
+        buttonEventsLinked = linked;
+    }
+
+    @Override
+    public void initializeModule() throws IOException {
+        TCA6424AProvider provider = tcaProvider;
+        if (provider == null) {
+            return;
+        }
+
+        // a card which kept its configuration only needs one read to verify it
+        VM208ExRegisterCache cache = registerCache;
+        if (cache == null || cache.getDirection() != DIRECTION_IMAGE
+                || !provider.restoreSettings(cache.getDirection(), cache.getPolarity())) {
+            // set all pins to output
+            boolean deviceNeedsInitialization = provider.setDirectionSettings(0x00, 0xFF, 0x00);
+            if (deviceNeedsInitialization) {
+                // turn channels off
+                provider.setOutput0Settings(0x00);
+                provider.setOutput2Settings(0xFF);
+            }
+        }
+
+        // request inputs and outputs since nothing is known yet
+        provider.readStates();
+    }
+
+    @Override
+    public void moduleInitialized(boolean success) {
+        if (!success) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
+                    "The card in socket " + socket + " of the interface does not respond.");
+            return;
+        }
+
+        storeRegisterCache(registerLocation);
+
+        // publish every linked channel after a (re)initialization
+        publishedImageValid = false;
+        publishStates();
+        updateButtonEventsLinked();
+        VM208ButtonEngine engine = buttonEngine;
+        if (engine != null) {
+            // a button held during the start is not reported as a press
+            engine.reset(pressedButtons());
+        }
+        lastPressedButtons = pressedButtons();
+        Arrays.fill(buttonReleaseTimes, System.nanoTime() - BINDING_HOLDOFF);
+        moduleReady = true;
+
+        updateStatus(ThingStatus.ONLINE);
+    }
+
+    @Override
+    public void moduleFailed(String reason) {
+        // the interface drops all traffic until a probe succeeds, then the module is initialized again
+        moduleReady = false;
+        updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, reason);
+        // after a failed verification the cache holds the outputs read back from the card
+        publishStates();
+    }
+
+    @Override
+    public void probeModule() throws IOException {
+        this.tcaProvider.probe();
+    }
+
+    private void storeRegisterCache(String location) {
+        String value = new VM208ExRegisterCache(location, tcaProvider.getDirectionImage(),
+                tcaProvider.getPolarityImage()).toString();
+        if (!value.equals(thing.getProperties().get(REGISTER_CACHE))) {
+            updateProperty(REGISTER_CACHE, value);
+        }
     }
 
     private @Nullable TCA6424AProvider initializeTcaProvider(int busNumber, int address)
@@ -140,52 +336,112 @@ public class VM208ExHandler extends BaseThingHandler implements VM208BaseHandler
         config = getConfigAs(VM208ExConfiguration.class);
         socket = config.getSocket();
         ledReflectsRelayStatus = config.isLedReflectsRelayStatus();
+        coalescingTime = config.getCoalescingTime();
+        longPressTime = config.getLongPressTime();
+        doublePressTime = config.getDoublePressTime();
+        buttonBindings = VM208ExButtonBinding.parse(config.getButtonBindings());
+        for (int i = 0; i < VM208ExChannelTable.CHANNELS_PER_BANK; i++) {
+            pulseTimes[i] = getChannelParameter(channelTable.getPulseChannelUID(i), PULSETIME,
+                    VM208ExButtonBinding.DEFAULT_PULSE_TIME);
+            autoOffTimes[i] = getChannelParameter(channelTable.getChannelUID(i), AUTOOFFTIME, 0);
+        }
+    }
+
+    private int getChannelParameter(ChannelUID channelUID, String parameter, int defaultValue) {
+        Channel channel = thing.getChannel(channelUID);
+        Object value = channel != null ? channel.getConfiguration().get(parameter) : null;
+        return value instanceof BigDecimal ? ((BigDecimal) value).intValue() : defaultValue;
     }
 
     @Override
     public void handleCommand(ChannelUID channelUID, Command command) {
-        logger.debug("Received command: {} on channelGroup {} on channel {}", command.toFullString(),
-                channelUID.getGroupId(), channelUID.getIdWithoutGroup());
-
-        for (int i = 0; i < RELAY_CHANNELS.length; i++) {
-            String relayChannel = RELAY_CHANNELS[i];
-            if (relayChannel.equals(channelUID.getGroupId())) {
-                // RELAY
-                if (channelUID.getIdWithoutGroup().equals(RELAY)) {
-                    if (command instanceof OnOffType) {
-                        if (command.equals(OnOffType.ON)) {
-                            this.turnRelayOn(i);
-                        } else {
-                            this.turnRelayOff(i);
-                        }
+        logger.debug("Received command: {} on channel {}", command, channelUID);
+
+        VM208ExChannelTable.Entry entry = channelTable.get(channelUID);
+        if (entry == null) {
+            VM208ExChannelTable.Kind mask = channelTable.getMask(channelUID);
+            if (mask != null && command instanceof DecimalType) {
+                this.handleMaskCommand(mask, ((DecimalType) command).intValue() & 0xFF);
+            }
+            int pulse = channelTable.getPulse(channelUID);
+            if (pulse >= 0 && command == OnOffType.ON) {
+                this.pulseRelay(pulse, pulseTimes[pulse]);
+            }
+            return;
+        }
+
+        switch (entry.getKind()) {
+            case RELAY:
+                if (command instanceof OnOffType) {
+                    if (command == OnOffType.ON) {
+                        this.turnRelayOn(entry.getIndex());
+                    } else {
+                        this.turnRelayOff(entry.getIndex());
                     }
                 }
-                // BUTTON
-                else if (channelUID.getIdWithoutGroup().equals(BUTTON)) {
-                    // read only
-                }
-                // LED
-                else if (channelUID.getIdWithoutGroup().equals(LED)) {
-                    if (command.equals(OnOffType.ON)) {
-                        this.turnLedOn(i);
+                break;
+            case BUTTON:
+                // read only
+                break;
+            case LED:
+                if (command instanceof OnOffType) {
+                    if (command == OnOffType.ON) {
+                        this.turnLedOn(entry.getIndex());
                     } else {
-                        this.turnLedOff(i);
+                        this.turnLedOff(entry.getIndex());
                     }
                 }
-            }
+                break;
         }
     }
 
+    private void handleMaskCommand(VM208ExChannelTable.Kind mask, int bits) {
+        // bit n of the mask is channel n + 1, the whole bank is written at once
+        switch (mask) {
+            case RELAY:
+                if (ledReflectsRelayStatus) {
+                    // the leds are active low
+                    this.writeOutputs(bits | ((~bits & 0xFF) << 16), 0xFF00FF);
+                } else {
+                    this.writeOutputs(bits, 0x0000FF);
+                }
+                break;
+            case BUTTON:
+                // read only
+                break;
+            case LED:
+                // active low so result is inverted
+                this.writeOutputs((~bits & 0xFF) << 16, 0xFF0000);
+                break;
+        }
+    }
+
+    private void writeOutputs(int outputImage, int changeMask) {
+        if (coalescingTime > 0) {
+            this.queueOutputs(outputImage, changeMask);
+            return;
+        }
+
+        // request communication
+        this.gateway.sendToSocketAsync(this, () -> this.applyOutputs(outputImage, changeMask));
+    }
+
+    private void applyOutputs(int outputImage, int changeMask) throws IOException {
+        this.tcaProvider.setOutputs(outputImage, changeMask);
+
+        // update state
+        this.publishStates();
+    }
+
     @Override
     public void turnRelayOn(int channel) {
-        // request communication
-        this.gateway.sendToSocket(this, () -> {
-            this.turnRelayOnWithoutLock(channel);
+        if (coalescingTime > 0) {
+            this.queueRelay(channel, true);
+            return;
+        }
 
-            if (ledReflectsRelayStatus) {
-                this.turnLedOn(channel);
-            }
-        });
+        // request communication
+        this.gateway.sendToSocketAsync(this, relayOnCommands[channel]);
     }
 
     @Override
@@ -196,44 +452,104 @@ public class VM208ExHandler extends BaseThingHandler implements VM208BaseHandler
         return this.tcaProvider.getState(pin).equals(pinState);
     }
 
-    private void turnRelayOnWithoutLock(int channel) {
+    private void turnRelayOnWithoutLock(int channel) throws IOException {
         // turn relay on
         Pin pin = VM208ExHandler.RELAY_PIN_MAP[channel];
         PinState pinState = PinState.HIGH;
         this.tcaProvider.setState(pin, pinState);
 
         // update state
-        this.updateState(new ChannelUID(thing.getUID(), RELAY_CHANNELS[channel], RELAY), OnOffType.ON);
+        this.publishStates();
     }
 
     @Override
     public void turnRelayOff(int channel) {
+        if (coalescingTime > 0) {
+            this.queueRelay(channel, false);
+            return;
+        }
+
         // request communication
-        this.gateway.sendToSocket(this, () -> {
-            this.turnRelayOffWithoutLock(channel);
+        this.gateway.sendToSocketAsync(this, relayOffCommands[channel]);
+    }
 
-            if (ledReflectsRelayStatus) {
-                this.turnLedOff(channel);
-            }
+    @Override
+    public void pulseRelay(int channel, int time) {
+        // request communication, a pulse is written immediately
+        this.gateway.sendToSocketAsync(this, () -> {
+            this.switchRelayWithoutLock(channel, true);
+            // replaces the auto-off started by switching on
+            this.startTimer(VM208ExChannelTable.Kind.RELAY, channel, time);
         });
     }
 
-    private void turnRelayOffWithoutLock(int channel) {
+    @Override
+    public void timersExpired(int outputImage, int changeMask) {
+        if (!moduleReady) {
+            return;
+        }
+
+        // request communication
+        this.gateway.sendToSocketAsync(this, () -> this.applyOutputs(outputImage, changeMask));
+    }
+
+    private synchronized void startTimer(VM208ExChannelTable.Kind target, int index, long time) {
+        VM208TimingWheel.@Nullable Timer[] timers = target == VM208ExChannelTable.Kind.LED ? ledTimers : relayTimers;
+        VM208TimingWheel.Timer timer = timers[index];
+        if (timer != null) {
+            timer.cancel();
+        }
+        timers[index] = this.gateway.getTimingWheel().schedule(this, targetImage(target, index, false),
+                targetMask(target, index), time);
+    }
+
+    private synchronized void cancelTimer(VM208TimingWheel.@Nullable Timer[] timers, int index) {
+        VM208TimingWheel.Timer timer = timers[index];
+        if (timer != null) {
+            timer.cancel();
+            timers[index] = null;
+        }
+    }
+
+    private void switchRelayWithoutLock(int channel, boolean on) throws IOException {
+        if (ledReflectsRelayStatus) {
+            this.switchRelayAndLedWithoutLock(channel, on);
+        } else if (on) {
+            this.turnRelayOnWithoutLock(channel);
+        } else {
+            this.turnRelayOffWithoutLock(channel);
+        }
+    }
+
+    private void turnRelayOffWithoutLock(int channel) throws IOException {
         // turn relay off
         Pin pin = VM208ExHandler.RELAY_PIN_MAP[channel];
         PinState pinState = PinState.LOW;
         this.tcaProvider.setState(pin, pinState);
 
         // update state
-        this.updateState(new ChannelUID(thing.getUID(), RELAY_CHANNELS[channel], RELAY), OnOffType.OFF);
+        this.publishStates();
+    }
+
+    private void switchRelayAndLedWithoutLock(int channel, boolean on) throws IOException {
+        // relay and led are written together, the led is active low
+        int relayBit = 1 << VM208ExHandler.RELAY_PIN_MAP[channel].getAddress();
+        int ledBit = 1 << VM208ExHandler.LED_PIN_MAP[channel].getAddress();
+        this.tcaProvider.setOutputs(on ? relayBit : ledBit, relayBit | ledBit);
+
+        // update state
+        this.publishStates();
     }
 
     @Override
     public void turnLedOn(int channel) {
+        if (coalescingTime > 0) {
+            this.queueLed(channel, true);
+            return;
+        }
+
         // request communication
-        this.gateway.sendToSocket(this, () -> {
-            this.turnLedOnWithoutLock(channel);
-        });
+        this.gateway.sendToSocketAsync(this, ledOnCommands[channel]);
     }
 
     @Override
@@ -244,32 +560,79 @@ public class VM208ExHandler extends BaseThingHandler implements VM208BaseHandler
         return this.tcaProvider.getState(pin).equals(pinState);
     }
 
-    private void turnLedOnWithoutLock(int channel) {
+    private void turnLedOnWithoutLock(int channel) throws IOException {
         // turn led on
         Pin pin = VM208ExHandler.LED_PIN_MAP[channel];
         PinState pinState = PinState.LOW; // active low so result is inverted
         this.tcaProvider.setState(pin, pinState);
 
         // update state
-        this.updateState(new ChannelUID(thing.getUID(), RELAY_CHANNELS[channel], LED), OnOffType.ON);
+        this.publishStates();
     }
 
     @Override
     public void turnLedOff(int channel) {
+        if (coalescingTime > 0) {
+            this.queueLed(channel, false);
+            return;
+        }
+
         // request communication
-        this.gateway.sendToSocket(this, () -> {
-            this.turnLedOffWithoutLock(channel);
-        });
+        this.gateway.sendToSocketAsync(this, ledOffCommands[channel]);
     }
 
-    private void turnLedOffWithoutLock(int channel) {
+    private void turnLedOffWithoutLock(int channel) throws IOException {
         // turn led off
         Pin pin = VM208ExHandler.LED_PIN_MAP[channel];
         PinState pinState = PinState.HIGH;
         this.tcaProvider.setState(pin, pinState);
 
         // update state
-        this.updateState(new ChannelUID(thing.getUID(), RELAY_CHANNELS[channel], LED), OnOffType.OFF);
+        this.publishStates();
+    }
+
+    private void queueRelay(int channel, boolean on) {
+        int relayBit = 1 << VM208ExHandler.RELAY_PIN_MAP[channel].getAddress();
+        if (ledReflectsRelayStatus) {
+            int ledBit = 1 << VM208ExHandler.LED_PIN_MAP[channel].getAddress();
+            queueOutputs(on ? relayBit : ledBit, relayBit | ledBit);
+        } else {
+            queueOutputs(on ? relayBit : 0, relayBit);
+        }
+    }
+
+    private void queueLed(int channel, boolean on) {
+        // active low so result is inverted
+        int ledBit = 1 << VM208ExHandler.LED_PIN_MAP[channel].getAddress();
+        queueOutputs(on ? 0 : ledBit, ledBit);
+    }
+
+    private void queueOutputs(int outputImage, int changeMask) {
+        synchronized (pendingOutputsLock) {
+            // a later command for the same pin replaces the earlier one
+            pendingOutputImage = (pendingOutputImage & ~changeMask) | (outputImage & changeMask);
+            pendingOutputMask |= changeMask;
+
+            if (pendingOutputsJob == null) {
+                pendingOutputsJob = scheduler.schedule(this::flushOutputs, coalescingTime, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void flushOutputs() {
+        int outputImage;
+        int changeMask;
+        synchronized (pendingOutputsLock) {
+            outputImage = pendingOutputImage;
+            changeMask = pendingOutputMask;
+            pendingOutputMask = 0;
+            pendingOutputsJob = null;
+        }
+
+        if (changeMask != 0) {
+            // request communication
+            this.gateway.sendToSocketAsync(this, () -> this.applyOutputs(outputImage, changeMask));
+        }
     }
 
     @Override
@@ -280,37 +643,208 @@ public class VM208ExHandler extends BaseThingHandler implements VM208BaseHandler
         return this.tcaProvider.getState(pin).equals(pinState);
     }
 
-    public void fetchInitialStates() {
-        fetchUpdate();
-    }
-
     @Override
-    public void fetchUpdate() {
+    public boolean fetchUpdate(long timestamp) {
+        // the inputs are read by the initialization sweep first
+        if (!moduleReady) {
+            return false;
+        }
+
         // request communication
         this.gateway.sendToSocket(this, () -> {
-            // request states since we don't know what is changed
-            this.tcaProvider.readStates();
+            // an interrupt is only raised by the inputs, so one burst read is enough
+            this.tcaProvider.readInputStates();
+
+            // bound buttons switch their targets within the same bus claim
+            this.applyButtonBindings(timestamp);
         });
 
-        // check relay states
-        for (int i = 0; i < VM208ExHandler.RELAY_PIN_MAP.length; i++) {
-            this.updateState(new ChannelUID(thing.getUID(), RELAY_CHANNELS[i], RELAY), //
-                    isRelayOn(i) ? OnOffType.ON : OnOffType.OFF);
+        boolean changed = publishStates() != 0;
+        this.sampleButtons(timestamp);
+        return changed;
+    }
+
+    private void resampleButtons() {
+        if (!moduleReady) {
+            return;
         }
 
-        // check led states
-        for (int i = 0; i < VM208ExHandler.LED_PIN_MAP.length; i++) {
-            this.updateState(new ChannelUID(thing.getUID(), RELAY_CHANNELS[i], LED), //
-                    isLedOn(i) ? OnOffType.ON : OnOffType.OFF);
+        // a button is still bouncing, take another snapshot
+        this.gateway.sendToSocketAsync(this, () -> {
+            this.tcaProvider.readInputStates();
+            this.applyButtonBindings(System.nanoTime());
+            this.publishStates();
+            this.sampleButtons(System.nanoTime());
+        });
+    }
+
+    private void sampleButtons(long timestamp) {
+        VM208ButtonEngine engine = buttonEngine;
+        if (engine != null && buttonEventsLinked) {
+            engine.sample(pressedButtons(), timestamp);
         }
+    }
 
-        // check button states
-        for (int i = 0; i < VM208ExHandler.BUTTON_PIN_MAP.length; i++) {
-            this.updateState(new ChannelUID(thing.getUID(), RELAY_CHANNELS[i], BUTTON), //
-                    isButtonPressed(i) ? OnOffType.ON : OnOffType.OFF);
+    private void applyButtonBindings(long timestamp) throws IOException {
+        if (buttonBindings.isEmpty()) {
+            return;
+        }
+
+        int pressed = pressedButtons();
+        int pressEdges = pressed & ~lastPressedButtons;
+        int releaseEdges = ~pressed & lastPressedButtons;
+        lastPressedButtons = pressed;
+        while (releaseEdges != 0) {
+            int button = Integer.numberOfTrailingZeros(releaseEdges);
+            releaseEdges &= releaseEdges - 1;
+            buttonReleaseTimes[button] = timestamp;
+        }
+
+        // a press right after a release is contact bounce
+        int accepted = 0;
+        while (pressEdges != 0) {
+            int button = Integer.numberOfTrailingZeros(pressEdges);
+            pressEdges &= pressEdges - 1;
+            if (timestamp - buttonReleaseTimes[button] >= BINDING_HOLDOFF) {
+                accepted |= 1 << button;
+            }
+        }
+        if (accepted == 0) {
+            return;
+        }
+
+        // all targets are written at once
+        int outputImage = this.tcaProvider.getOutputImage();
+        int changeMask = 0;
+        for (VM208ExButtonBinding binding : buttonBindings) {
+            if (((accepted >> binding.getButton()) & 1) == 0) {
+                continue;
+            }
+
+            VM208ExChannelTable.Kind target = binding.getTarget();
+            int index = binding.getIndex();
+            boolean on;
+            switch (binding.getAction()) {
+                case TOGGLE:
+                    on = !isTargetOn(outputImage, target, index);
+                    break;
+                case OFF:
+                    on = false;
+                    break;
+                default:
+                    on = true;
+                    break;
+            }
+            int mask = targetMask(target, index);
+            outputImage = (outputImage & ~mask) | (targetImage(target, index, on) & mask);
+            changeMask |= mask;
+
+            if (binding.getAction() == VM208ExButtonBinding.Action.PULSE) {
+                this.startTimer(target, index, binding.getPulseTime());
+            }
+        }
+        this.tcaProvider.setOutputs(outputImage, changeMask);
+    }
+
+    private boolean isTargetOn(int outputImage, VM208ExChannelTable.Kind target, int index) {
+        if (target == VM208ExChannelTable.Kind.LED) {
+            // active low
+            return ((outputImage >> VM208ExHandler.LED_PIN_MAP[index].getAddress()) & 1) == 0;
+        }
+        return ((outputImage >> VM208ExHandler.RELAY_PIN_MAP[index].getAddress()) & 1) == 1;
+    }
+
+    private int targetMask(VM208ExChannelTable.Kind target, int index) {
+        int relayBit = 1 << VM208ExHandler.RELAY_PIN_MAP[index].getAddress();
+        int ledBit = 1 << VM208ExHandler.LED_PIN_MAP[index].getAddress();
+        if (target == VM208ExChannelTable.Kind.LED) {
+            return ledBit;
+        }
+        return ledReflectsRelayStatus ? relayBit | ledBit : relayBit;
+    }
+
+    private int targetImage(VM208ExChannelTable.Kind target, int index, boolean on) {
+        int relayBit = 1 << VM208ExHandler.RELAY_PIN_MAP[index].getAddress();
+        int ledBit = 1 << VM208ExHandler.LED_PIN_MAP[index].getAddress();
+        if (target == VM208ExChannelTable.Kind.LED) {
+            // active low
+            return on ? 0 : ledBit;
+        }
+        return on ? relayBit : ledBit;
+    }
+
+    private void updateRelayTimers(int relaysOn, int relaysOff) {
+        // a relay switched on by any means starts its auto-off, unless a pulse is already running
+        while (relaysOn != 0) {
+            int index = Integer.numberOfTrailingZeros(relaysOn);
+            relaysOn &= relaysOn - 1;
+            VM208TimingWheel.Timer timer = relayTimers[index];
+            if (autoOffTimes[index] > 0 && (timer == null || !timer.isPending())) {
+                this.startTimer(VM208ExChannelTable.Kind.RELAY, index, autoOffTimes[index] * 1000L);
+            }
+        }
+        while (relaysOff != 0) {
+            int index = Integer.numberOfTrailingZeros(relaysOff);
+            relaysOff &= relaysOff - 1;
+            this.cancelTimer(relayTimers, index);
         }
     }
 
+    private int pressedButtons() {
+        // active low, so the inverted input bank holds the pressed buttons
+        return bankOf(this.tcaProvider.getStateImage() ^ ACTIVE_LOW_MASK, VM208ExChannelTable.Kind.BUTTON);
+    }
+
+    private void triggerButtonEvent(int button, String event) {
+        logger.debug("Button {} of {}: {}", button + 1, thing.getUID(), event);
+        this.triggerChannel(channelTable.getEventChannelUID(button), event);
+    }
+
+    private synchronized int publishStates() {
+        int image = this.tcaProvider.getStateImage() ^ ACTIVE_LOW_MASK;
+        int previousImage = publishedImage;
+        int changed = publishedImageValid ? image ^ previousImage : STATE_IMAGE_MASK;
+        publishedImage = image;
+        publishedImageValid = true;
+
+        // the mask channels of the changed banks
+        for (VM208ExChannelTable.Kind kind : BANKS) {
+            if (bankOf(changed, kind) != 0) {
+                ChannelUID channelUID = channelTable.getMaskChannelUID(kind);
+                if (isLinked(channelUID)) {
+                    this.updateState(channelUID, new DecimalType(bankOf(image, kind)));
+                }
+            }
+        }
+        if (bankOf(changed, VM208ExChannelTable.Kind.RELAY) != 0) {
+            this.gateway.updateRelayImage(socket, bankOf(image, VM208ExChannelTable.Kind.RELAY));
+            this.updateRelayTimers(bankOf(changed & image, VM208ExChannelTable.Kind.RELAY),
+                    bankOf(changed & ~image, VM208ExChannelTable.Kind.RELAY));
+        }
+        int ledsOff = bankOf(changed & ~image, VM208ExChannelTable.Kind.LED);
+        while (ledsOff != 0) {
+            int index = Integer.numberOfTrailingZeros(ledsOff);
+            ledsOff &= ledsOff - 1;
+            this.cancelTimer(ledTimers, index);
+        }
+
+        // only publish the bits which have changed since the last publication
+        while (changed != 0) {
+            int bit = Integer.numberOfTrailingZeros(changed);
+            changed &= changed - 1;
+
+            ChannelUID channelUID = channelTable.getChannelUID(bit);
+            if (isLinked(channelUID)) {
+                this.updateState(channelUID, ((image >> bit) & 1) == 1 ? OnOffType.ON : OnOffType.OFF);
+            }
+        }
+        return image ^ previousImage;
+    }
+
+    private static int bankOf(int image, VM208ExChannelTable.Kind kind) {
+        return (image >> (kind.getBank() * VM208ExChannelTable.CHANNELS_PER_BANK)) & 0xFF;
+    }
+
     @Override
     public int getSocket() {
         return socket;
@@ -320,8 +854,35 @@ public class VM208ExHandler extends BaseThingHandler implements VM208BaseHandler
     public void dispose() {
         super.dispose();
 
-        // unregister socket
-        gateway.unregisterSocket(this);
+        // drop commands which have not been written yet
+        synchronized (pendingOutputsLock) {
+            ScheduledFuture<?> job = pendingOutputsJob;
+            if (job != null) {
+                job.cancel(false);
+                pendingOutputsJob = null;
+            }
+            pendingOutputMask = 0;
+        }
+
+        VM208ButtonEngine engine = buttonEngine;
+        if (engine != null) {
+            engine.dispose();
+            buttonEngine = null;
+        }
+
+        // pending pulses and auto-off are dropped, the outputs keep their state
+        for (int i = 0; i < VM208ExChannelTable.CHANNELS_PER_BANK; i++) {
+            cancelTimer(relayTimers, i);
+            cancelTimer(ledTimers, i);
+        }
+
+        // unregister socket, initialize may have stopped before it was registered
+        moduleReady = false;
+        VM208IntHandler gateway = this.gateway;
+        if (socketRegistered && gateway != null) {
+            gateway.unregisterSocket(this);
+        }
+        socketRegistered = false;
 
         // shutdown provider
         if (this.tcaProvider != null) {
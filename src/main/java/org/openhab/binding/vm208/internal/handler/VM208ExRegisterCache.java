@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.handler;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link VM208ExRegisterCache} class holds the configuration registers of a card as they were
+ * in an earlier session. It is stored as a thing property, in the form
+ * {@code <bus>/<interface address>/<socket>:<direction>:<polarity>} with the registers in hex.
+ * The location makes sure a cache is not applied to a card in another socket.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class VM208ExRegisterCache {
+
+    private final String location;
+    private final int direction;
+    private final int polarity;
+
+    public VM208ExRegisterCache(String location, int direction, int polarity) {
+        this.location = location;
+        this.direction = direction;
+        this.polarity = polarity;
+    }
+
+    /**
+     * Builds the location part of the cache.
+     *
+     * @param busNumber the bus of the interface
+     * @param address the address of the interface
+     * @param socket the socket of the card
+     * @return the location
+     */
+    public static String location(int busNumber, int address, int socket) {
+        return busNumber + "/" + Integer.toHexString(address) + "/" + socket;
+    }
+
+    /**
+     * Parses a stored cache.
+     *
+     * @param value the stored cache, may be null
+     * @param location the location of the card
+     * @return the cache, null if nothing is stored or it belongs to another location
+     */
+    public static @Nullable VM208ExRegisterCache parse(@Nullable String value, String location) {
+        if (value == null) {
+            return null;
+        }
+
+        String[] parts = value.split(":");
+        if (parts.length != 3 || !parts[0].equals(location)) {
+            return null;
+        }
+        try {
+            return new VM208ExRegisterCache(location, Integer.parseInt(parts[1], 16), Integer.parseInt(parts[2], 16));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    public int getDirection() {
+        return direction;
+    }
+
+    public int getPolarity() {
+        return polarity;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s:%06x:%06x", location, direction, polarity);
+    }
+}
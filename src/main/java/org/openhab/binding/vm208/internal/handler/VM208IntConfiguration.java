@@ -13,6 +13,8 @@
 package org.openhab.binding.vm208.internal.handler;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.vm208.internal.i2c.TCA9544Provider;
 
 /**
  * The {@link VM208IntConfiguration} class contains fields mapping thing configuration parameters.
@@ -35,7 +37,42 @@ public class VM208IntConfiguration {
     /**
      * Interrupt GPIO pin used
      */
-    private int interruptPin;
+    private @Nullable Integer interruptPin;
+
+    /**
+     * Keep the last socket selected between commands?
+     */
+    private boolean stickyMux = true;
+
+    /**
+     * Shortest polling interval in milliseconds, used after activity when no interrupt pin is configured
+     */
+    private int pollingInterval = TCA9544Provider.DEFAULT_POLLING_TIME;
+
+    /**
+     * Longest polling interval in milliseconds, used while the bus is idle
+     */
+    private int maxPollingInterval = 1000;
+
+    /**
+     * Poll the inputs of the cards as well?
+     */
+    private boolean pollInputs;
+
+    /**
+     * Interval in seconds at which the bus metrics are published, 0 to disable them
+     */
+    private int metricsInterval = 60;
+
+    /**
+     * Interrupts per second of a socket before it is polled instead, 0 to never poll
+     */
+    private int interruptRateLimit = 50;
+
+    /**
+     * Interval in milliseconds at which a socket is polled during an interrupt storm
+     */
+    private int stormPollingInterval = 100;
 
     public int getAddress() {
         return address;
@@ -45,7 +82,35 @@ public class VM208IntConfiguration {
         return busNumber;
     }
 
-    public int getInterruptPin() {
+    public @Nullable Integer getInterruptPin() {
         return interruptPin;
     }
+
+    public boolean isStickyMux() {
+        return stickyMux;
+    }
+
+    public int getPollingInterval() {
+        return pollingInterval;
+    }
+
+    public int getMaxPollingInterval() {
+        return maxPollingInterval;
+    }
+
+    public boolean isPollInputs() {
+        return pollInputs;
+    }
+
+    public int getMetricsInterval() {
+        return metricsInterval;
+    }
+
+    public int getInterruptRateLimit() {
+        return interruptRateLimit;
+    }
+
+    public int getStormPollingInterval() {
+        return stormPollingInterval;
+    }
 }
@@ -12,17 +12,36 @@
  */
 package org.openhab.binding.vm208.internal.handler;
 
+import static org.openhab.binding.vm208.internal.VM208BindingConstants.*;
+
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.eclipse.smarthome.core.thing.binding.BaseBridgeHandler;
 import org.eclipse.smarthome.core.types.Command;
+import org.openhab.binding.vm208.internal.handler.VM208BusHandler.Priority;
 import org.openhab.binding.vm208.internal.i2c.GPIODataHolder;
+import org.openhab.binding.vm208.internal.i2c.I2CMetrics;
+import org.openhab.binding.vm208.internal.i2c.I2CRetryPolicy;
+import org.openhab.binding.vm208.internal.i2c.I2CTracer;
+import org.openhab.binding.vm208.internal.i2c.I2CVerifyException;
+import org.openhab.binding.vm208.internal.i2c.TCA6424AProvider;
 import org.openhab.binding.vm208.internal.i2c.TCA9544Provider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,29 +60,82 @@ import com.pi4j.io.i2c.I2CFactory.UnsupportedBusNumberException;
  * @author Simon Lamon - Initial contribution
  */
 @NonNullByDefault
-public class VM208IntHandler extends BaseBridgeHandler implements GpioPinListenerDigital {
+public class VM208IntHandler extends BaseBridgeHandler implements GpioPinListenerDigital, VM208BusUser {
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
-    private final VM208BusHandler bus;
+    private final VM208BusRegistry busRegistry;
+
+    private @NonNullByDefault({}) VM208BusHandler bus;
 
     private @NonNullByDefault({}) VM208IntConfiguration config;
 
     private int busNumber;
     private int address;
     private int interruptPin;
+    private boolean stickyMux;
+    private int pollingInterval;
+    private int maxPollingInterval;
+    private boolean pollInputs;
+    private int metricsInterval;
+    private int interruptRateLimit;
+    private int stormPollingInterval;
+
+    private @Nullable ScheduledFuture<?> metricsJob;
+
+    // Modules initialized shortly after each other are configured in one sweep
+    private static final int INITIALIZATION_DELAY = 100;
+    private final Object pendingModulesLock = new Object();
+    private final List<VM208BaseHandler> pendingModules = new ArrayList<>();
+    private @Nullable ScheduledFuture<?> initializationJob;
+    private I2CMetrics.@Nullable Snapshot previousMetrics;
+    private static final double LATENCY_PERCENTILE = 0.99;
+
+    // Set by the last interrupt service pass
+    private boolean interruptActivity;
+
+    // Interrupt storms, sources 0-3 are the sockets and source 4 is the interrupt line itself
+    private static final int SOCKET_MASK = 0x0F;
+    private static final int LINE_SOURCE = 4;
+    private @NonNullByDefault({}) VM208InterruptLimiter interruptLimiter;
+    private int limitedSources;
+    private final AtomicLong spuriousInterrupts = new AtomicLong();
+    private final AtomicLong unregisteredInterrupts = new AtomicLong();
 
     private VM208BaseHandler[] sockets;
 
+    // Failing modules are kept off the bus and probed in the background
+    private static final int PROBE_INTERVAL = 5;
+    private final VM208CircuitBreaker[] breakers;
+    private @Nullable ScheduledFuture<?> probeJob;
+
+    // The relays of all sockets, socket 1 in bits 0-7 up to socket 4 in bits 24-31
+    private final Object relayImageLock = new Object();
+    private int relayImage;
+
     private @NonNullByDefault({}) TCA9544Provider tcaProvider;
 
     private @Nullable GpioPinDigitalInput interruptPinInput;
 
-    public VM208IntHandler(VM208BusHandler bus, Bridge bridge) {
+    private final Runnable serviceInterruptsCommand = this::serviceInterrupts;
+
+    private final VM208InterruptDispatcher interruptDispatcher;
+
+    // Pulses and auto-off of all cards
+    private final VM208TimingWheel timingWheel;
+
+    public VM208IntHandler(VM208BusRegistry busRegistry, Bridge bridge) {
         super(bridge);
-        this.bus = bus;
+        this.busRegistry = busRegistry;
+        this.interruptDispatcher = new VM208InterruptDispatcher("vm208-interrupt-" + bridge.getUID().getId(),
+                this::claimBusForInterrupts);
+        this.timingWheel = new VM208TimingWheel(scheduler);
 
         this.sockets = new VM208BaseHandler[4];
+        this.breakers = new VM208CircuitBreaker[this.sockets.length];
+        for (int i = 0; i < this.breakers.length; i++) {
+            this.breakers[i] = new VM208CircuitBreaker();
+        }
     }
 
     public int getBusNumber() {
@@ -74,10 +146,39 @@ public class VM208IntHandler extends BaseBridgeHandler implements GpioPinListene
         return address;
     }
 
+    /**
+     * Returns the metrics of the bus, in which the cards count their transfers.
+     *
+     * @return the metrics
+     */
+    public I2CMetrics getMetrics() {
+        return bus.getMetrics();
+    }
+
+    /**
+     * Returns the trace of the bus, in which the cards record their transfers.
+     *
+     * @return the tracer, null if the interface is not initialized
+     */
+    public @Nullable I2CTracer getTracer() {
+        VM208BusHandler bus = this.bus;
+        return bus != null ? bus.getTracer() : null;
+    }
+
+    /**
+     * Returns the wheel which runs the output timers of the cards.
+     *
+     * @return the timing wheel
+     */
+    public VM208TimingWheel getTimingWheel() {
+        return timingWheel;
+    }
+
     public void registerSocket(VM208BaseHandler vm208baseHandler) {
         int socket = vm208baseHandler.getSocket();
         if (this.sockets[socket - 1] == null) {
             this.sockets[socket - 1] = vm208baseHandler;
+            this.breakers[socket - 1].close();
         } else {
             throw new IllegalStateException("Socket " + socket + " has been registered before.");
         }
@@ -90,14 +191,180 @@ public class VM208IntHandler extends BaseBridgeHandler implements GpioPinListene
         } else {
             this.sockets[socket - 1] = null;
         }
+        synchronized (pendingModulesLock) {
+            pendingModules.remove(vm208baseHandler);
+        }
+    }
+
+    /**
+     * Updates the relays of one socket in the combined relay image.
+     *
+     * @param socket the socket of the module
+     * @param relays the relays of the module, relay 1 in bit 0
+     */
+    public void updateRelayImage(int socket, int relays) {
+        synchronized (relayImageLock) {
+            int shift = (socket - 1) * 8;
+            relayImage = (relayImage & ~(0xFF << shift)) | ((relays & 0xFF) << shift);
+            updateState(RELAY_IMAGE, new DecimalType(relayImage & 0xFFFFFFFFL));
+        }
+    }
+
+    /**
+     * Queues a registered module for the next initialization sweep.
+     * The module is told the result through {@link VM208BaseHandler#moduleInitialized(boolean)}.
+     *
+     * @param vm208baseHandler the handler of the module
+     */
+    public void initializeSocket(VM208BaseHandler vm208baseHandler) {
+        synchronized (pendingModulesLock) {
+            pendingModules.add(vm208baseHandler);
+            if (initializationJob == null) {
+                initializationJob = scheduler.schedule(this::initializeModules, INITIALIZATION_DELAY,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void initializeModules() {
+        VM208BaseHandler[] modules;
+        synchronized (pendingModulesLock) {
+            modules = pendingModules.toArray(new VM208BaseHandler[pendingModules.size()]);
+            pendingModules.clear();
+            initializationJob = null;
+        }
+        logger.debug("Initializing {} modules of {}", modules.length, thing.getUID());
+
+        // every module is configured and read back to back, with one socket selection each;
+        // interfaces on other buses do their sweep at the same time
+        boolean[] initialized = new boolean[modules.length];
+        try {
+            bus.claimBus(this, () -> sweepModules(modules, initialized));
+        } catch (RuntimeException ex) {
+            logger.warn("Initialization sweep of {} failed: {}", thing.getUID(), ex.toString());
+        }
+
+        for (int i = 0; i < modules.length; i++) {
+            if (this.sockets[modules[i].getSocket() - 1] == modules[i]) {
+                modules[i].moduleInitialized(initialized[i]);
+            }
+        }
+    }
+
+    private void sweepModules(VM208BaseHandler[] modules, boolean[] initialized) {
+        try {
+            for (int i = 0; i < modules.length; i++) {
+                VM208BaseHandler module = modules[i];
+                int socket = module.getSocket();
+                if (this.sockets[socket - 1] != module) {
+                    // disposed in the meantime
+                    continue;
+                }
+                try {
+                    tcaProvider.changeChannel((byte) socket);
+                    module.initializeModule();
+                    initialized[i] = true;
+                } catch (IOException ex) {
+                    // probed in the background until it responds
+                    logger.debug("Cannot initialize socket {} of {}: {}", socket, thing.getUID(), ex.toString());
+                    breakers[socket - 1].open();
+                    startProbing();
+                }
+            }
+        } finally {
+            if (!stickyMux) {
+                deselectSocket();
+            }
+        }
+    }
+
+    /**
+     * Looks for cards in the sockets without module, in one bus operation.
+     * Every socket is probed with a single burst read of the direction registers.
+     *
+     * @return the direction registers of the card per socket, -1 if no card has been found
+     *         or the interface is not online
+     */
+    public int[] probeSockets() {
+        int[] directions = new int[sockets.length];
+        Arrays.fill(directions, -1);
+
+        VM208BusHandler bus = this.bus;
+        if (bus == null || thing.getStatus() != ThingStatus.ONLINE) {
+            logger.debug("Not probing the sockets of {}, it is not online", thing.getUID());
+            return directions;
+        }
+
+        TCA6424AProvider probe;
+        try {
+            probe = new TCA6424AProvider(busNumber, VM208ExHandler.BASE_ADDRESS);
+        } catch (UnsupportedBusNumberException | IOException ex) {
+            logger.warn("Cannot probe the sockets of {}: {}", thing.getUID(), ex.toString());
+            return directions;
+        }
+        // an empty socket is not an error, so the probes are traced but not counted or retried
+        probe.setTracer(bus.getTracer());
+        probe.setRetryPolicy(I2CRetryPolicy.NONE);
+
+        try {
+            bus.claimBus(this, () -> probeSockets(probe, directions));
+        } catch (RuntimeException ex) {
+            logger.warn("Probing the sockets of {} failed: {}", thing.getUID(), ex.toString());
+        } finally {
+            probe.shutdown();
+        }
+        return directions;
+    }
+
+    private void probeSockets(TCA6424AProvider probe, int[] directions) {
+        try {
+            for (int i = 0; i < this.sockets.length; i++) {
+                if (this.sockets[i] != null) {
+                    // already in use by a module
+                    continue;
+                }
+                try {
+                    tcaProvider.changeChannel((byte) (i + 1));
+                    directions[i] = probe.readDirectionSettings();
+                } catch (IOException ex) {
+                    logger.debug("No card found in socket {} of {}", i + 1, thing.getUID());
+                }
+            }
+        } finally {
+            if (!stickyMux) {
+                deselectSocket();
+            }
+        }
     }
 
     @Override
     public void initialize() {
         try {
             checkConfiguration();
+            bus = busRegistry.acquire(busNumber);
             tcaProvider = initializeTcaProvider();
+            if (tcaProvider != null) {
+                tcaProvider.setMetrics(bus.getMetrics());
+                tcaProvider.setTracer(bus.getTracer());
+            }
+            interruptLimiter = new VM208InterruptLimiter(LINE_SOURCE + 1, interruptRateLimit, stormPollingInterval);
+            limitedSources = 0;
+            // the dispatcher outlives a dispose, so it may still be throttled by a storm of the previous run
+            interruptDispatcher.setFallbackInterval(0);
+            interruptDispatcher.setMinServiceInterval(0);
+            updateState(LIMITED_SOCKETS, new DecimalType(0));
             interruptPinInput = initializeInterruptPin();
+            if (interruptPinInput != null) {
+                interruptDispatcher.start();
+            } else {
+                logger.debug("Polling {} every {} to {} ms", thing.getUID(), pollingInterval, maxPollingInterval);
+                interruptDispatcher.startPolling(pollingInterval, maxPollingInterval);
+            }
+            if (metricsInterval > 0) {
+                previousMetrics = bus.getMetrics().snapshot();
+                metricsJob = scheduler.scheduleWithFixedDelay(this::publishMetrics, metricsInterval, metricsInterval,
+                        TimeUnit.SECONDS);
+            }
             updateStatus(ThingStatus.ONLINE);
         } catch (IllegalArgumentException | SecurityException e) {
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR,
@@ -140,34 +407,214 @@ public class VM208IntHandler extends BaseBridgeHandler implements GpioPinListene
         config = getConfigAs(VM208IntConfiguration.class);
         address = Integer.parseInt(Integer.toString(config.getAddress()), 16);
         busNumber = config.getBusNumber();
-        interruptPin = config.getInterruptPin();
+        Integer configuredInterruptPin = config.getInterruptPin();
+        interruptPin = configuredInterruptPin != null ? configuredInterruptPin : -1;
+        stickyMux = config.isStickyMux();
+        pollingInterval = config.getPollingInterval();
+        maxPollingInterval = config.getMaxPollingInterval();
+        pollInputs = config.isPollInputs();
+        metricsInterval = config.getMetricsInterval();
+        interruptRateLimit = config.getInterruptRateLimit();
+        stormPollingInterval = config.getStormPollingInterval();
+    }
+
+    private void publishMetrics() {
+        I2CMetrics.Snapshot snapshot = bus.getMetrics().snapshot();
+        I2CMetrics.Snapshot previous = previousMetrics;
+        previousMetrics = snapshot;
+        if (previous == null) {
+            return;
+        }
+
+        updateMetric(BUS_UTILIZATION, snapshot.getUtilization(previous));
+        updateMetric(TRANSACTION_RATE, snapshot.getTransactionRate(previous));
+        updateMetric(TRANSACTION_LATENCY, snapshot.getLatencyPercentile(previous, LATENCY_PERCENTILE));
+        updateMetric(BYTE_RATE, snapshot.getByteRate(previous));
+        updateMetric(QUEUE_WAIT, snapshot.getAverageQueueWait(previous));
+        updateMetric(ERROR_RATE, snapshot.getErrorRate(previous));
+        updateState(QUEUE_DEPTH, new DecimalType(bus.getQueueDepth()));
+        updateState(SPURIOUS_INTERRUPTS, new DecimalType(spuriousInterrupts.get()));
+        updateState(UNREGISTERED_INTERRUPTS, new DecimalType(unregisteredInterrupts.get()));
+
+        // socket 0 is the mux itself, which shows up as the mux register class
+        for (int socket = 1; socket < I2CMetrics.SOCKETS; socket++) {
+            updateMetric(SOCKET_PREFIX + socket + LATENCY_SUFFIX,
+                    snapshot.getSocketLatencyPercentile(previous, socket, LATENCY_PERCENTILE));
+            updateMetric(SOCKET_PREFIX + socket + ERROR_RATE_SUFFIX, snapshot.getSocketErrorRate(previous, socket));
+        }
+        for (I2CMetrics.RegisterClass registerClass : I2CMetrics.RegisterClass.values()) {
+            String prefix = registerClass.name().toLowerCase(Locale.ROOT);
+            updateMetric(prefix + LATENCY_SUFFIX,
+                    snapshot.getClassLatencyPercentile(previous, registerClass, LATENCY_PERCENTILE));
+            updateMetric(prefix + ERROR_RATE_SUFFIX, snapshot.getClassErrorRate(previous, registerClass));
+        }
     }
 
-    // Only one socket can access this method at a time
-    public synchronized void sendToSocket(VM208BaseHandler vm208baseHandler, Runnable command) {
+    private void updateMetric(String channelId, double value) {
+        updateState(channelId, new DecimalType(BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP)));
+    }
+
+    /**
+     * Runs the command on the socket of the handler and waits until it is done.
+     *
+     * @param vm208baseHandler the handler of the socket
+     * @param command the command to run while the socket is selected
+     */
+    public void sendToSocket(VM208BaseHandler vm208baseHandler, VM208SocketCommand command) {
         int socket = vm208baseHandler.getSocket();
 
         // Only one interface can communicate with the bus,
         // since each device has the same address
-        bus.claimBus(() -> {
-            boolean channelHasChanged = false;
-            try {
-                tcaProvider.changeChannel((byte) socket);
-                channelHasChanged = true;
+        bus.claimBus(this, () -> runOnSocket(socket, command));
+    }
 
-                command.run();
-            } catch (IOException ex) {
+    /**
+     * Queues the command for the socket of the handler without waiting for the bus.
+     *
+     * @param vm208baseHandler the handler of the socket
+     * @param command the command to run while the socket is selected
+     * @return a future which completes when the command has run
+     */
+    public CompletableFuture<@Nullable Void> sendToSocketAsync(VM208BaseHandler vm208baseHandler,
+            VM208SocketCommand command) {
+        int socket = vm208baseHandler.getSocket();
+        return bus.submit(Priority.COMMAND, this, () -> runOnSocket(socket, command));
+    }
+
+    private void runOnSocket(int socket, VM208SocketCommand command) {
+        VM208CircuitBreaker breaker = breakers[socket - 1];
+        if (breaker.isOpen()) {
+            // a failed module does not take the bus from the others
+            logger.trace("Dropping command for socket {} of {}", socket, thing.getUID());
+            return;
+        }
+
+        boolean channelHasChanged = false;
+        try {
+            tcaProvider.changeChannel((byte) socket);
+            channelHasChanged = true;
+
+            command.run();
+            breaker.recordSuccess();
+        } catch (IOException ex) {
+            if (!channelHasChanged) {
                 logger.error("", ex);
-            } finally {
-                if (channelHasChanged) {
-                    try {
-                        tcaProvider.changeChannel((byte) 0);
-                    } catch (IOException ex) {
-                        logger.error("", ex);
-                    }
+            } else {
+                moduleFailed(socket, ex);
+            }
+        } finally {
+            // a sticky socket stays selected until the bus is claimed by another interface
+            if (channelHasChanged && !stickyMux) {
+                deselectSocket();
+            }
+        }
+    }
+
+    private void moduleFailed(int socket, IOException ex) {
+        logger.debug("Command for socket {} of {} failed: {}", socket, thing.getUID(), ex.toString());
+        String reason;
+        if (ex instanceof I2CVerifyException) {
+            // the card answers but its outputs are unknown, stop driving it until it is initialized again
+            if (!breakers[socket - 1].open()) {
+                return;
+            }
+            logger.warn("The outputs of the card in socket {} of {} do not read back as written, probing it every {} s",
+                    socket, thing.getUID(), PROBE_INTERVAL);
+            reason = "The outputs of the card in socket " + socket + " do not read back as written: "
+                    + ex.getMessage();
+        } else {
+            if (!breakers[socket - 1].recordFailure()) {
+                return;
+            }
+            logger.warn("The card in socket {} of {} does not respond, probing it every {} s", socket,
+                    thing.getUID(), PROBE_INTERVAL);
+            reason = "The card in socket " + socket + " does not respond: " + ex.getMessage();
+        }
+        VM208BaseHandler module = sockets[socket - 1];
+        if (module != null) {
+            module.moduleFailed(reason);
+        }
+        startProbing();
+    }
+
+    private void startProbing() {
+        synchronized (breakers) {
+            if (probeJob == null) {
+                probeJob = scheduler.scheduleWithFixedDelay(this::probeModules, PROBE_INTERVAL, PROBE_INTERVAL,
+                        TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private void probeModules() {
+        VM208BaseHandler[] recovered = new VM208BaseHandler[sockets.length];
+        try {
+            bus.claimBus(this, () -> probeModules(recovered));
+        } catch (RuntimeException ex) {
+            logger.debug("Probing the cards of {} failed: {}", thing.getUID(), ex.toString());
+        }
+
+        boolean failing = false;
+        for (int i = 0; i < sockets.length; i++) {
+            VM208BaseHandler module = recovered[i];
+            if (module != null) {
+                logger.info("The card in socket {} of {} responds again", i + 1, thing.getUID());
+                initializeSocket(module);
+            }
+            failing |= sockets[i] != null && breakers[i].isOpen();
+        }
+
+        if (!failing) {
+            synchronized (breakers) {
+                ScheduledFuture<?> job = probeJob;
+                if (job != null) {
+                    job.cancel(false);
+                    probeJob = null;
                 }
             }
-        });
+        }
+    }
+
+    private void probeModules(@Nullable VM208BaseHandler[] recovered) {
+        try {
+            for (int i = 0; i < sockets.length; i++) {
+                VM208BaseHandler module = sockets[i];
+                if (module == null || !breakers[i].isOpen()) {
+                    continue;
+                }
+                try {
+                    // a single transfer without retries
+                    tcaProvider.changeChannel((byte) (i + 1));
+                    module.probeModule();
+                    breakers[i].close();
+                    recovered[i] = module;
+                } catch (IOException ex) {
+                    logger.trace("The card in socket {} of {} still does not respond", i + 1, thing.getUID());
+                }
+            }
+        } finally {
+            if (!stickyMux) {
+                deselectSocket();
+            }
+        }
+    }
+
+    @Override
+    public void releaseBus() {
+        // called by the bus while it is claimed, so the provider can be accessed
+        deselectSocket();
+    }
+
+    private void deselectSocket() {
+        TCA9544Provider provider = tcaProvider;
+        if (provider == null) {
+            return;
+        }
+        try {
+            provider.changeChannel((byte) 0);
+        } catch (IOException ex) {
+            logger.error("", ex);
+        }
     }
 
     @Override
@@ -178,43 +625,141 @@ public class VM208IntHandler extends BaseBridgeHandler implements GpioPinListene
                 return;
             }
 
-            try {
-                int interrupt = tcaProvider.readInterrupts();
-                // Fetch an update for every connected socket
-                if (interrupt != 0) {
-                    for (int i = 0; i < this.sockets.length; i++) {
-                        boolean hasInterrupt = ((interrupt >> i) & 1) == 1;
+            // Only record the interrupt, the servicing thread does the bus work
+            interruptDispatcher.signal();
+        }
+    }
+
+    private boolean claimBusForInterrupts() {
+        // Interrupts are serviced by the bus worker before any waiting command
+        interruptActivity = false;
+        bus.claimBus(Priority.INTERRUPT, this, serviceInterruptsCommand);
+        return interruptActivity;
+    }
+
+    private void serviceInterrupts() {
+        try {
+            // the buttons are timed from the interrupt, not from the moment it is serviced
+            long timestamp = interruptPinInput != null ? interruptDispatcher.getLastInterruptTime()
+                    : System.nanoTime();
+            int interrupt = tcaProvider.readInterrupts() & SOCKET_MASK;
+            // Fetch an update for every connected socket
+            if (interrupt != 0) {
+                interruptActivity = true;
+            }
+            if (interruptPinInput != null) {
+                interrupt = limitInterrupts(interrupt);
+            }
+            // While polling without interrupt lines, the inputs of every socket are read
+            boolean pollSockets = pollInputs && interruptPinInput == null;
+            for (int i = 0; i < this.sockets.length; i++) {
+                boolean hasInterrupt = ((interrupt >> i) & 1) == 1;
+                if (hasInterrupt || pollSockets) {
+                    VM208BaseHandler socket = this.sockets[i];
+                    if (hasInterrupt) {
+                        logger.debug("Handling interrupt on socket {}", i + 1);
+                    }
+                    if (socket == null) {
                         if (hasInterrupt) {
-                            VM208BaseHandler socket = this.sockets[i];
-                            logger.debug("Handling interrupt on socket {}", i + 1);
-                            if (socket != null) {
-                                socket.fetchUpdate();
-                            }
+                            unregisteredInterrupts.incrementAndGet();
                         }
+                    } else if (socket.fetchUpdate(timestamp)) {
+                        interruptActivity = true;
                     }
                 }
-            } catch (Exception ex) {
-                logger.error("", ex);
             }
+        } catch (Exception ex) {
+            logger.error("", ex);
         }
     }
 
+    private int limitInterrupts(int interrupt) {
+        // an edge without any flagged socket is noise on the interrupt line
+        int flagged = interrupt;
+        if (interrupt == 0 && interruptDispatcher.isSignalled()) {
+            spuriousInterrupts.incrementAndGet();
+            flagged |= 1 << LINE_SOURCE;
+        }
+
+        int admitted = interruptLimiter.admit(flagged, System.nanoTime());
+        int limited = interruptLimiter.getLimited();
+        if (limited != limitedSources) {
+            for (int source = 0; source <= LINE_SOURCE; source++) {
+                int bit = 1 << source;
+                if ((limited & ~limitedSources & bit) != 0) {
+                    logger.warn("Interrupt storm on {} {}, polling it every {} ms", thing.getUID(),
+                            source == LINE_SOURCE ? "interrupt line" : "socket " + (source + 1),
+                            stormPollingInterval);
+                } else if ((limitedSources & ~limited & bit) != 0) {
+                    logger.debug("Interrupt storm on {} {} is over", thing.getUID(),
+                            source == LINE_SOURCE ? "interrupt line" : "socket " + (source + 1));
+                }
+            }
+            limitedSources = limited;
+
+            // a limited socket holds the interrupt line low, so the edges of the others are lost
+            interruptDispatcher.setFallbackInterval(limited != 0 ? stormPollingInterval : 0);
+            interruptDispatcher.setMinServiceInterval(((limited >> LINE_SOURCE) & 1) != 0 ? stormPollingInterval : 0);
+            updateState(LIMITED_SOCKETS, new DecimalType(limited & SOCKET_MASK));
+        }
+        return admitted & SOCKET_MASK;
+    }
+
     @Override
     public void handleCommand(ChannelUID channelUID, Command command) {
-        // no channels
+        // read only channels
     }
 
     @Override
     public void dispose() {
         super.dispose();
 
+        ScheduledFuture<?> job = metricsJob;
+        if (job != null) {
+            job.cancel(false);
+            metricsJob = null;
+        }
+        synchronized (pendingModulesLock) {
+            job = initializationJob;
+            if (job != null) {
+                job.cancel(false);
+                initializationJob = null;
+            }
+            pendingModules.clear();
+        }
+        timingWheel.clear();
+        synchronized (breakers) {
+            job = probeJob;
+            if (job != null) {
+                job.cancel(false);
+                probeJob = null;
+            }
+        }
+
         if (interruptPinInput != null) {
             GPIODataHolder.GPIO.unprovisionPin(interruptPinInput);
         }
 
+        // a pass waiting for the bus is cancelled, one already running on the bus finishes before the release
+        interruptDispatcher.stop();
+
+        if (bus != null) {
+            // deselect a sticky socket before the provider goes away
+            try {
+                bus.releaseBus(this);
+            } catch (RuntimeException ex) {
+                logger.debug("Cannot release the bus of {}: {}", thing.getUID(), ex.toString());
+            }
+        }
+
         if (tcaProvider != null) {
             tcaProvider.shutdown();
             tcaProvider = null;
         }
+
+        if (bus != null) {
+            busRegistry.release(bus);
+            bus = null;
+        }
     }
 }
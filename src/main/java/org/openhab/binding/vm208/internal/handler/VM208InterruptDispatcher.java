@@ -0,0 +1,246 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.handler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link VM208InterruptDispatcher} hands interrupts over from the GPIO listener
+ * to its own servicing thread. Edges which arrive while an interrupt is serviced
+ * are coalesced into a single extra pass.
+ * Without an interrupt line it polls instead, faster after activity and slower while idle.
+ * During an interrupt storm the passes can be spaced out, and a fallback poll covers
+ * edges which are lost while the interrupt line is held low.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class VM208InterruptDispatcher {
+
+    private final Logger logger = LoggerFactory.getLogger(VM208InterruptDispatcher.class);
+
+    // Milliseconds stop() waits for a pass which is still running
+    private static final long STOP_TIMEOUT = 1000;
+
+    private final String name;
+    private final BooleanSupplier service;
+
+    private final Object lock = new Object();
+    private boolean pending;
+    private long lastInterruptTime;
+    private @Nullable Thread thread;
+
+    private boolean polling;
+    private long minPollingInterval;
+    private long maxPollingInterval;
+    private long pollingInterval;
+
+    private long fallbackInterval;
+    private long minServiceInterval;
+    private long lastServiceTime;
+    private volatile boolean signalled;
+
+    /**
+     * Creates a dispatcher.
+     *
+     * @param name the name of the servicing thread
+     * @param service services the interrupts and returns true if there was any activity
+     */
+    public VM208InterruptDispatcher(String name, BooleanSupplier service) {
+        this.name = name;
+        this.service = service;
+    }
+
+    public void start() {
+        synchronized (lock) {
+            if (thread == null) {
+                Thread servicingThread = new Thread(this::work, name);
+                servicingThread.setDaemon(true);
+                thread = servicingThread;
+                servicingThread.start();
+            }
+        }
+    }
+
+    /**
+     * Starts polling, for when no interrupt line is available.
+     * The interval drops to the minimum after activity and doubles on every idle poll.
+     *
+     * @param minPollingInterval the interval in milliseconds after activity
+     * @param maxPollingInterval the longest interval in milliseconds while idle
+     */
+    public void startPolling(long minPollingInterval, long maxPollingInterval) {
+        synchronized (lock) {
+            this.polling = true;
+            this.minPollingInterval = Math.max(1, minPollingInterval);
+            this.maxPollingInterval = Math.max(this.minPollingInterval, maxPollingInterval);
+            this.pollingInterval = this.minPollingInterval;
+        }
+        start();
+    }
+
+    /**
+     * Services a pass at least every interval, even without an interrupt.
+     *
+     * @param fallbackInterval the interval in milliseconds, 0 to wait for interrupts only
+     */
+    public void setFallbackInterval(long fallbackInterval) {
+        synchronized (lock) {
+            this.fallbackInterval = Math.max(0, fallbackInterval);
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Spaces the passes out, interrupts arriving in between are coalesced into the next pass.
+     *
+     * @param minServiceInterval the shortest time in milliseconds between two passes, 0 for no limit
+     */
+    public void setMinServiceInterval(long minServiceInterval) {
+        synchronized (lock) {
+            this.minServiceInterval = Math.max(0, minServiceInterval);
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Tells whether the current pass was caused by an interrupt, rather than a poll.
+     *
+     * @return true if an interrupt was signalled before the pass
+     */
+    public boolean isSignalled() {
+        return signalled;
+    }
+
+    /**
+     * Stops the servicing thread and waits for a pass which is still running, so the resources
+     * used by the passes can be released afterwards.
+     */
+    public void stop() {
+        Thread servicingThread;
+        synchronized (lock) {
+            servicingThread = thread;
+            thread = null;
+            pending = false;
+            polling = false;
+            if (servicingThread != null) {
+                servicingThread.interrupt();
+            }
+        }
+        if (servicingThread != null && servicingThread != Thread.currentThread()) {
+            try {
+                servicingThread.join(STOP_TIMEOUT);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (servicingThread.isAlive()) {
+                logger.warn("Servicing thread {} did not stop within {} ms", name, STOP_TIMEOUT);
+            }
+        }
+    }
+
+    /**
+     * Marks an interrupt as pending, this does not block.
+     */
+    public void signal() {
+        synchronized (lock) {
+            pending = true;
+            lastInterruptTime = System.nanoTime();
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Returns the time of the last interrupt.
+     *
+     * @return the {@link System#nanoTime()} of the last signal
+     */
+    public long getLastInterruptTime() {
+        synchronized (lock) {
+            return lastInterruptTime;
+        }
+    }
+
+    private void work() {
+        Thread self = Thread.currentThread();
+        synchronized (lock) {
+            lastServiceTime = System.nanoTime();
+        }
+        while (true) {
+            synchronized (lock) {
+                long start = System.nanoTime();
+                while (thread == self) {
+                    long interval = polling ? pollingInterval : fallbackInterval;
+                    long wakeTime;
+                    if (pending) {
+                        if (minServiceInterval == 0) {
+                            break;
+                        }
+                        // a storm on the interrupt line spaces the passes out
+                        wakeTime = lastServiceTime + TimeUnit.MILLISECONDS.toNanos(minServiceInterval);
+                    } else if (interval > 0) {
+                        wakeTime = start + TimeUnit.MILLISECONDS.toNanos(interval);
+                    } else {
+                        try {
+                            lock.wait();
+                        } catch (InterruptedException ex) {
+                            // stop clears the thread
+                        }
+                        continue;
+                    }
+                    try {
+                        long remaining = TimeUnit.NANOSECONDS.toMillis(wakeTime - System.nanoTime());
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        lock.wait(remaining);
+                    } catch (InterruptedException ex) {
+                        // stop clears the thread
+                    }
+                }
+                if (thread != self) {
+                    return;
+                }
+                // every edge up to now is handled by this pass
+                signalled = pending;
+                pending = false;
+                lastServiceTime = System.nanoTime();
+            }
+
+            boolean active = false;
+            try {
+                active = service.getAsBoolean();
+            } catch (RuntimeException ex) {
+                synchronized (lock) {
+                    if (thread != self) {
+                        // stopped while waiting for the bus
+                        return;
+                    }
+                }
+                logger.error("Servicing interrupts failed on {}", name, ex);
+            }
+
+            synchronized (lock) {
+                if (polling) {
+                    pollingInterval = active ? minPollingInterval : Math.min(pollingInterval * 2, maxPollingInterval);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.handler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link VM208InterruptLimiter} protects the bus against interrupt storms, like a chattering input
+ * or a floating interrupt line. It counts the interrupts of every source in windows of one second.
+ * A source exceeding the rate limit is limited: it is only serviced once per polling interval,
+ * flagged or not, until it stays quiet for a whole window.
+ * Not thread safe, it is only used by the pass servicing the interrupts.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class VM208InterruptLimiter {
+
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(1);
+
+    private final int rateLimit;
+    private final long pollingInterval;
+
+    private final int[] counts;
+    private final long[] windowStarts;
+    private final long[] lastInterrupts;
+    private final long[] nextPolls;
+    private int limited;
+
+    /**
+     * Creates a limiter.
+     *
+     * @param sources the number of interrupt sources, at most 32
+     * @param rateLimit the interrupts per second of a source before it is limited, 0 to never limit
+     * @param pollingInterval the interval in milliseconds at which a limited source is serviced
+     */
+    public VM208InterruptLimiter(int sources, int rateLimit, long pollingInterval) {
+        this.rateLimit = rateLimit;
+        this.pollingInterval = TimeUnit.MILLISECONDS.toNanos(pollingInterval);
+        this.counts = new int[sources];
+        this.windowStarts = new long[sources];
+        this.lastInterrupts = new long[sources];
+        this.nextPolls = new long[sources];
+    }
+
+    /**
+     * Counts the interrupts of a service pass and decides which sources are serviced by it.
+     *
+     * @param flagged the sources with an interrupt, source n in bit n
+     * @param now the {@link System#nanoTime()} of the pass
+     * @return the sources to service, a limited source is included when its poll is due
+     */
+    public int admit(int flagged, long now) {
+        if (rateLimit <= 0) {
+            return flagged;
+        }
+
+        int admitted = 0;
+        for (int source = 0; source < counts.length; source++) {
+            int bit = 1 << source;
+            boolean interrupt = (flagged & bit) != 0;
+            if ((limited & bit) == 0) {
+                if (!interrupt) {
+                    continue;
+                }
+                // nanoTime has no fixed origin, so the first window starts at the first interrupt
+                if (counts[source] == 0 || now - windowStarts[source] >= WINDOW) {
+                    windowStarts[source] = now;
+                    counts[source] = 0;
+                }
+                if (++counts[source] > rateLimit) {
+                    limited |= bit;
+                    lastInterrupts[source] = now;
+                    nextPolls[source] = now + pollingInterval;
+                } else {
+                    admitted |= bit;
+                }
+                continue;
+            }
+
+            if (interrupt) {
+                lastInterrupts[source] = now;
+            }
+            if (now - nextPolls[source] >= 0) {
+                nextPolls[source] = now + pollingInterval;
+                admitted |= bit;
+                if (now - lastInterrupts[source] >= WINDOW) {
+                    // calmed down, interrupts are serviced right away again
+                    limited &= ~bit;
+                    windowStarts[source] = now;
+                    counts[source] = 0;
+                }
+            }
+        }
+        return admitted;
+    }
+
+    /**
+     * Returns the limited sources.
+     *
+     * @return source n in bit n
+     */
+    public int getLimited() {
+        return limited;
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.handler;
+
+import java.io.IOException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link VM208SocketCommand} interface is a bus command which runs while the socket of a module is selected.
+ * A failure is counted against the module, see {@link VM208CircuitBreaker}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+@FunctionalInterface
+public interface VM208SocketCommand {
+
+    void run() throws IOException;
+}
@@ -0,0 +1,241 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.handler;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link VM208TimingWheel} runs the output timers of all cards of an interface, like the end of a pulse
+ * or the auto-off of a relay. The timers are hashed by their deadline into the buckets of a wheel which
+ * advances every {@link #TICK} milliseconds, so starting and cancelling a timer costs O(1).
+ * The timers of a card which expire in the same tick are merged into one output write.
+ * The wheel only ticks while timers are pending.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class VM208TimingWheel {
+
+    /**
+     * Receives the merged outputs of the expired timers
+     */
+    public interface Target {
+        /**
+         * @param outputImage the outputs to write
+         * @param changeMask the outputs which are changed
+         */
+        void timersExpired(int outputImage, int changeMask);
+    }
+
+    /**
+     * A pending output change
+     */
+    public class Timer {
+        private final Target target;
+        private final int outputImage;
+        private final int changeMask;
+        private final long deadline;
+
+        // Links within the bucket, the bucket is -1 once the timer expired or is cancelled
+        private @Nullable Timer previous;
+        private @Nullable Timer next;
+        private int bucket = -1;
+
+        private Timer(Target target, int outputImage, int changeMask, long deadline) {
+            this.target = target;
+            this.outputImage = outputImage;
+            this.changeMask = changeMask;
+            this.deadline = deadline;
+        }
+
+        public boolean isPending() {
+            synchronized (VM208TimingWheel.this) {
+                return bucket >= 0;
+            }
+        }
+
+        /**
+         * Cancels the timer, nothing happens if it has already expired.
+         */
+        public void cancel() {
+            synchronized (VM208TimingWheel.this) {
+                if (bucket >= 0) {
+                    unlink(this);
+                }
+            }
+        }
+    }
+
+    public static final int TICK = 10;
+    public static final int WHEEL_SIZE = 512;
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(TICK);
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final ScheduledExecutorService scheduler;
+    private final LongSupplier clock;
+    private final @Nullable Timer[] buckets = new Timer[WHEEL_SIZE];
+    private final long startNanos;
+
+    // The last tick whose bucket has been expired
+    private long processedTick;
+    private int pendingTimers;
+    private @Nullable ScheduledFuture<?> tickJob;
+
+    public VM208TimingWheel(ScheduledExecutorService scheduler) {
+        this(scheduler, System::nanoTime);
+    }
+
+    /**
+     * Creates a wheel with its own clock, for tests.
+     *
+     * @param scheduler runs the ticks
+     * @param clock returns the time in nanoseconds, like {@link System#nanoTime()}
+     */
+    VM208TimingWheel(ScheduledExecutorService scheduler, LongSupplier clock) {
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.startNanos = clock.getAsLong();
+    }
+
+    /**
+     * Starts a timer.
+     *
+     * @param target receives the outputs when the timer expires
+     * @param outputImage the outputs to write
+     * @param changeMask the outputs which are changed
+     * @param delay the delay in milliseconds, rounded up to the next tick
+     * @return the timer
+     */
+    public synchronized Timer schedule(Target target, int outputImage, int changeMask, long delay) {
+        long now = currentTick();
+        if (pendingTimers == 0) {
+            // the wheel was idle, continue from the current tick
+            processedTick = now;
+        }
+
+        long deadline = Math.max(processedTick + 1, now + (delay + TICK - 1) / TICK);
+        Timer timer = new Timer(target, outputImage, changeMask, deadline);
+        int bucket = (int) (deadline & (WHEEL_SIZE - 1));
+        Timer head = buckets[bucket];
+        timer.next = head;
+        if (head != null) {
+            head.previous = timer;
+        }
+        buckets[bucket] = timer;
+        timer.bucket = bucket;
+        pendingTimers++;
+
+        if (tickJob == null) {
+            tickJob = scheduler.scheduleAtFixedRate(this::tick, TICK, TICK, TimeUnit.MILLISECONDS);
+        }
+        return timer;
+    }
+
+    /**
+     * Cancels all timers.
+     */
+    public synchronized void clear() {
+        for (int bucket = 0; bucket < WHEEL_SIZE; bucket++) {
+            Timer timer = buckets[bucket];
+            while (timer != null) {
+                Timer next = timer.next;
+                unlink(timer);
+                timer = next;
+            }
+        }
+        stopTicking();
+    }
+
+    private long currentTick() {
+        return (clock.getAsLong() - startNanos) / TICK_NANOS;
+    }
+
+    private void unlink(Timer timer) {
+        Timer previous = timer.previous;
+        Timer next = timer.next;
+        if (previous != null) {
+            previous.next = next;
+        } else {
+            buckets[timer.bucket] = next;
+        }
+        if (next != null) {
+            next.previous = previous;
+        }
+        timer.previous = null;
+        timer.next = null;
+        timer.bucket = -1;
+        pendingTimers--;
+    }
+
+    private void stopTicking() {
+        ScheduledFuture<?> job = tickJob;
+        if (job != null) {
+            job.cancel(false);
+            tickJob = null;
+        }
+    }
+
+    void tick() {
+        @Nullable
+        Map<Target, int[]> expired = null;
+        synchronized (this) {
+            // a late tick catches up with the ticks it missed
+            long now = currentTick();
+            while (processedTick < now && pendingTimers > 0) {
+                processedTick++;
+                Timer timer = buckets[(int) (processedTick & (WHEEL_SIZE - 1))];
+                while (timer != null) {
+                    Timer next = timer.next;
+                    // timers further away than one turn stay in their bucket
+                    if (timer.deadline <= processedTick) {
+                        unlink(timer);
+                        if (expired == null) {
+                            expired = new IdentityHashMap<>();
+                        }
+                        int[] outputs = expired.computeIfAbsent(timer.target, target -> new int[2]);
+                        outputs[0] = (outputs[0] & ~timer.changeMask) | (timer.outputImage & timer.changeMask);
+                        outputs[1] |= timer.changeMask;
+                    }
+                    timer = next;
+                }
+            }
+            if (pendingTimers == 0) {
+                processedTick = now;
+                stopTicking();
+            }
+        }
+
+        if (expired != null) {
+            for (Map.Entry<Target, int[]> entry : expired.entrySet()) {
+                try {
+                    entry.getKey().timersExpired(entry.getValue()[0], entry.getValue()[1]);
+                } catch (RuntimeException ex) {
+                    // keep the wheel turning for the other cards
+                    logger.warn("Failed to apply expired timers: {}", ex.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.i2c;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import com.pi4j.io.i2c.I2CBus;
+import com.pi4j.io.i2c.I2CFactory;
+import com.pi4j.io.i2c.I2CFactory.UnsupportedBusNumberException;
+
+/**
+ * The {@link I2CBusRegistry} shares the opened I2C buses between all providers.
+ * It is a static registry keyed by bus number: each bus counts its users,
+ * it is opened by the first user and closed when the last user releases it.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class I2CBusRegistry {
+
+    private static class SharedBus {
+        private final I2CBus bus;
+        private int users;
+
+        private SharedBus(I2CBus bus) {
+            this.bus = bus;
+        }
+    }
+
+    private static final Map<Integer, SharedBus> BUSES = new HashMap<>();
+
+    private I2CBusRegistry() {
+        // static registry
+    }
+
+    /**
+     * Borrows the bus, opening it if nobody uses it yet.
+     *
+     * @param busNumber the number of the I2C bus
+     * @return the shared bus
+     */
+    public static synchronized I2CBus acquire(int busNumber) throws UnsupportedBusNumberException, IOException {
+        SharedBus sharedBus = BUSES.get(busNumber);
+        if (sharedBus == null) {
+            sharedBus = new SharedBus(I2CFactory.getInstance(busNumber));
+            BUSES.put(busNumber, sharedBus);
+        }
+        sharedBus.users++;
+        return sharedBus.bus;
+    }
+
+    /**
+     * Gives the bus back, the last user closes it.
+     *
+     * @param bus the bus returned by {@link #acquire(int)}
+     */
+    public static synchronized void release(I2CBus bus) throws IOException {
+        SharedBus sharedBus = BUSES.get(bus.getBusNumber());
+        if (sharedBus == null || sharedBus.bus != bus) {
+            // not shared, so owned by the caller
+            bus.close();
+            return;
+        }
+        sharedBus.users--;
+        if (sharedBus.users == 0) {
+            BUSES.remove(bus.getBusNumber());
+            bus.close();
+        }
+    }
+}
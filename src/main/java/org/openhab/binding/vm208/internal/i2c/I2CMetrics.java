@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.i2c;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link I2CMetrics} class counts the transfers on one I2C bus.
+ * Errors are also counted per mux socket and per register class. The latency is kept in
+ * histograms with power of two buckets in microseconds, one for the bus, one per socket and one per class.
+ * All counters only grow, the difference of two {@link Snapshot}s gives the rates.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class I2CMetrics {
+
+    /**
+     * The kind of register a transfer accesses
+     */
+    public enum RegisterClass {
+        MUX,
+        INPUT,
+        OUTPUT,
+        POLARITY,
+        DIRECTION
+    }
+
+    // Socket 0 is used for transfers which do not go through a socket, like the mux itself
+    public static final int SOCKETS = 5;
+    public static final int LATENCY_BUCKETS = 32;
+
+    private static final int CLASSES = RegisterClass.values().length;
+
+    private static final int TRANSACTIONS = 0;
+    private static final int BYTES = 1;
+    private static final int ERRORS = 2;
+    private static final int BUSY_NANOS = 3;
+    private static final int QUEUE_WAITS = 4;
+    private static final int QUEUE_WAIT_NANOS = 5;
+    private static final int TOTALS = 6;
+
+    private final AtomicLongArray totals = new AtomicLongArray(TOTALS);
+    private final AtomicLongArray socketErrors = new AtomicLongArray(SOCKETS);
+    private final AtomicLongArray classErrors = new AtomicLongArray(CLASSES);
+    private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_BUCKETS);
+
+    // Bucket b of the histogram of socket or class n is at n * LATENCY_BUCKETS + b
+    private final AtomicLongArray socketLatencies = new AtomicLongArray(SOCKETS * LATENCY_BUCKETS);
+    private final AtomicLongArray classLatencies = new AtomicLongArray(CLASSES * LATENCY_BUCKETS);
+
+    /**
+     * Returns the register class of a TCA6424A register.
+     *
+     * @param register the register, with or without auto-increment bit
+     * @return the class of the register
+     */
+    public static RegisterClass classOf(int register) {
+        switch ((register >> 2) & 0x03) {
+            case 0:
+                return RegisterClass.INPUT;
+            case 1:
+                return RegisterClass.OUTPUT;
+            case 2:
+                return RegisterClass.POLARITY;
+            default:
+                return RegisterClass.DIRECTION;
+        }
+    }
+
+    /**
+     * Counts one transfer.
+     *
+     * @param socket the socket of the device, 0 for none
+     * @param registerClass the accessed register
+     * @param bytes the number of bytes on the bus, including the command byte
+     * @param nanos the duration of the transfer
+     * @param success false if the transfer failed
+     */
+    public void recordTransfer(int socket, RegisterClass registerClass, int bytes, long nanos, boolean success) {
+        totals.incrementAndGet(TRANSACTIONS);
+        totals.addAndGet(BYTES, bytes);
+        totals.addAndGet(BUSY_NANOS, nanos);
+        int bucket = bucketOf(nanos);
+        latencies.incrementAndGet(bucket);
+        socketLatencies.incrementAndGet(socket * LATENCY_BUCKETS + bucket);
+        classLatencies.incrementAndGet(registerClass.ordinal() * LATENCY_BUCKETS + bucket);
+        if (!success) {
+            totals.incrementAndGet(ERRORS);
+            socketErrors.incrementAndGet(socket);
+            classErrors.incrementAndGet(registerClass.ordinal());
+        }
+    }
+
+    /**
+     * Counts the time an operation waited for the bus.
+     *
+     * @param nanos the waiting time
+     */
+    public void recordQueueWait(long nanos) {
+        totals.incrementAndGet(QUEUE_WAITS);
+        totals.addAndGet(QUEUE_WAIT_NANOS, nanos);
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    private static int bucketOf(long nanos) {
+        long micros = nanos / 1000;
+        return Math.min(LATENCY_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+    }
+
+    private static long[] copy(AtomicLongArray array) {
+        long[] result = new long[array.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = array.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * The counters at one moment
+     */
+    public static class Snapshot {
+        private final long time;
+        private final long[] totals;
+        private final long[] socketErrors;
+        private final long[] classErrors;
+        private final long[] latencies;
+        private final long[] socketLatencies;
+        private final long[] classLatencies;
+
+        private Snapshot(I2CMetrics metrics) {
+            this.time = System.nanoTime();
+            this.totals = copy(metrics.totals);
+            this.socketErrors = copy(metrics.socketErrors);
+            this.classErrors = copy(metrics.classErrors);
+            this.latencies = copy(metrics.latencies);
+            this.socketLatencies = copy(metrics.socketLatencies);
+            this.classLatencies = copy(metrics.classLatencies);
+        }
+
+        /**
+         * Returns the share of time the bus was busy since the previous snapshot.
+         *
+         * @return the utilization in percent
+         */
+        public double getUtilization(Snapshot previous) {
+            long elapsed = time - previous.time;
+            return elapsed <= 0 ? 0 : 100.0 * (totals[BUSY_NANOS] - previous.totals[BUSY_NANOS]) / elapsed;
+        }
+
+        /**
+         * Returns the number of transfers per second since the previous snapshot.
+         */
+        public double getTransactionRate(Snapshot previous) {
+            return perSecond(totals[TRANSACTIONS] - previous.totals[TRANSACTIONS], previous);
+        }
+
+        /**
+         * Returns the number of bytes per second on the bus since the previous snapshot, including the command bytes.
+         */
+        public double getByteRate(Snapshot previous) {
+            return perSecond(totals[BYTES] - previous.totals[BYTES], previous);
+        }
+
+        /**
+         * Returns the number of failed transfers per minute since the previous snapshot.
+         */
+        public double getErrorRate(Snapshot previous) {
+            return 60 * perSecond(totals[ERRORS] - previous.totals[ERRORS], previous);
+        }
+
+        /**
+         * Returns the number of failed transfers of a socket per minute since the previous snapshot.
+         */
+        public double getSocketErrorRate(Snapshot previous, int socket) {
+            return 60 * perSecond(socketErrors[socket] - previous.socketErrors[socket], previous);
+        }
+
+        /**
+         * Returns the number of failed transfers of a register class per minute since the previous snapshot.
+         */
+        public double getClassErrorRate(Snapshot previous, RegisterClass registerClass) {
+            int index = registerClass.ordinal();
+            return 60 * perSecond(classErrors[index] - previous.classErrors[index], previous);
+        }
+
+        /**
+         * Returns the average time an operation waited for the bus since the previous snapshot.
+         *
+         * @return the waiting time in milliseconds
+         */
+        public double getAverageQueueWait(Snapshot previous) {
+            long waits = totals[QUEUE_WAITS] - previous.totals[QUEUE_WAITS];
+            return waits == 0 ? 0 : (totals[QUEUE_WAIT_NANOS] - previous.totals[QUEUE_WAIT_NANOS]) / 1e6 / waits;
+        }
+
+        /**
+         * Returns the latency which was not exceeded by the given share of the transfers since the previous
+         * snapshot. The result is the upper bound of the histogram bucket.
+         *
+         * @param percentile the share, like 0.99
+         * @return the latency in milliseconds
+         */
+        public double getLatencyPercentile(Snapshot previous, double percentile) {
+            return percentile(latencies, previous.latencies, 0, percentile);
+        }
+
+        /**
+         * Returns the latency percentile of the transfers of a socket, see {@link #getLatencyPercentile}.
+         */
+        public double getSocketLatencyPercentile(Snapshot previous, int socket, double percentile) {
+            return percentile(socketLatencies, previous.socketLatencies, socket * LATENCY_BUCKETS, percentile);
+        }
+
+        /**
+         * Returns the latency percentile of the transfers of a register class, see {@link #getLatencyPercentile}.
+         */
+        public double getClassLatencyPercentile(Snapshot previous, RegisterClass registerClass, double percentile) {
+            return percentile(classLatencies, previous.classLatencies, registerClass.ordinal() * LATENCY_BUCKETS,
+                    percentile);
+        }
+
+        private static double percentile(long[] histogram, long[] previous, int offset, double percentile) {
+            long count = 0;
+            for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                count += histogram[offset + i] - previous[offset + i];
+            }
+            if (count == 0) {
+                return 0;
+            }
+
+            long threshold = (long) Math.ceil(count * percentile);
+            long cumulative = 0;
+            for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                cumulative += histogram[offset + i] - previous[offset + i];
+                if (cumulative >= threshold) {
+                    return (1L << i) / 1000.0;
+                }
+            }
+            return (1L << (LATENCY_BUCKETS - 1)) / 1000.0;
+        }
+
+        private double perSecond(long count, Snapshot previous) {
+            long elapsed = time - previous.time;
+            return elapsed <= 0 ? 0 : count * 1e9 / elapsed;
+        }
+    }
+}
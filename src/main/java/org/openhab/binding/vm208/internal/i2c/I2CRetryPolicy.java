@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.i2c;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.vm208.internal.i2c.I2CMetrics.RegisterClass;
+
+/**
+ * The {@link I2CRetryPolicy} class decides how long a failed transfer is retried, per class of register.
+ * The time between attempts doubles from a base delay and is jittered, so devices which fail together
+ * do not retry in lockstep. A transfer is given up once the next attempt would start after the time budget
+ * of its class, so a dead device holds the bus for a bounded time only.
+ * The inputs are read while interrupts are serviced and get the shortest budget.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class I2CRetryPolicy {
+
+    /**
+     * Never retries, for probing devices which may be absent
+     */
+    public static final I2CRetryPolicy NONE = new I2CRetryPolicy(new long[RegisterClass.values().length],
+            new long[RegisterClass.values().length]);
+
+    /**
+     * Retries every transfer for a few milliseconds
+     */
+    public static final I2CRetryPolicy DEFAULT = new I2CRetryPolicy(
+            // MUX, INPUT, OUTPUT, POLARITY, DIRECTION
+            micros(5_000, 5_000, 20_000, 50_000, 50_000), micros(500, 500, 1_000, 2_000, 2_000));
+
+    private final long[] budgets;
+    private final long[] baseDelays;
+
+    private I2CRetryPolicy(long[] budgets, long[] baseDelays) {
+        this.budgets = budgets;
+        this.baseDelays = baseDelays;
+    }
+
+    private static long[] micros(long... values) {
+        long[] nanos = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            nanos[i] = TimeUnit.MICROSECONDS.toNanos(values[i]);
+        }
+        return nanos;
+    }
+
+    /**
+     * Waits before the next attempt of a failed transfer, or gives up.
+     *
+     * @param registerClass the class of the transfer
+     * @param attempt the failed attempts so far, 1 after the first failure
+     * @param start the {@link System#nanoTime()} of the first attempt
+     * @param failure the failure of the last attempt
+     * @throws IOException the failure, if no attempt is left
+     */
+    public void awaitRetry(RegisterClass registerClass, int attempt, long start, IOException failure)
+            throws IOException {
+        long budget = budgets[registerClass.ordinal()];
+        long baseDelay = baseDelays[registerClass.ordinal()];
+        if (budget == 0) {
+            throw failure;
+        }
+
+        // half of the delay is fixed, the other half is random
+        long ceiling = Math.min(baseDelay << Math.min(attempt - 1, 16), budget);
+        long delay = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+        if (System.nanoTime() - start + delay >= budget) {
+            throw failure;
+        }
+
+        LockSupport.parkNanos(delay);
+        if (Thread.currentThread().isInterrupted()) {
+            throw failure;
+        }
+    }
+}
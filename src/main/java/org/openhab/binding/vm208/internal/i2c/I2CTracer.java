@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.i2c;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link I2CTracer} class keeps the last transfers on one I2C bus.
+ * The records are packed into preallocated arrays which are used as a ring buffer,
+ * so tracing a transfer does not allocate and the oldest records are overwritten.
+ * The records are only decoded when they are dumped.
+ * A dump taken while the bus is busy may show a record which is being overwritten.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class I2CTracer {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    // Layout of a packed record, from the lowest bit
+    private static final int VALUE_SHIFT = 0; // 24 bits, up to three data bytes
+    private static final int REGISTER_SHIFT = 24; // 8 bits
+    private static final int ADDRESS_SHIFT = 32; // 7 bits
+    private static final int SOCKET_SHIFT = 39; // 3 bits
+    private static final int LENGTH_SHIFT = 42; // 2 bits, number of data bytes
+    private static final int WRITE_SHIFT = 44; // 1 bit
+    private static final int SUCCESS_SHIFT = 45; // 1 bit
+    private static final int BUS_SHIFT = 48; // 8 bits
+
+    private final int busNumber;
+    private final int mask;
+    private final long[] times;
+    private final long[] durations;
+    private final long[] records;
+    private final AtomicLong next = new AtomicLong();
+
+    // Relates the monotonic timestamps of the records to the wall clock
+    private final long baseMillis = System.currentTimeMillis();
+    private final long baseNanos = System.nanoTime();
+
+    public I2CTracer(int busNumber) {
+        this(busNumber, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param busNumber the number of the traced bus
+     * @param capacity the number of records kept, rounded up to a power of two
+     */
+    public I2CTracer(int busNumber, int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.busNumber = busNumber;
+        this.mask = size - 1;
+        this.times = new long[size];
+        this.durations = new long[size];
+        this.records = new long[size];
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Records one transfer.
+     *
+     * @param socket the mux socket of the device, 0 for none
+     * @param address the address of the device
+     * @param register the accessed register, without auto-increment bit
+     * @param value the transferred data bytes, the first byte in the lowest bits
+     * @param length the number of data bytes, at most 3
+     * @param write true for a write, false for a read
+     * @param start the {@link System#nanoTime()} at which the transfer started
+     * @param duration the duration of the transfer in nanoseconds
+     * @param success false if the transfer failed
+     */
+    public void trace(int socket, int address, int register, int value, int length, boolean write, long start,
+            long duration, boolean success) {
+        int slot = (int) (next.getAndIncrement() & mask);
+        times[slot] = start;
+        durations[slot] = duration;
+        records[slot] = ((long) (value & 0xFFFFFF) << VALUE_SHIFT) | ((long) (register & 0xFF) << REGISTER_SHIFT)
+                | ((long) (address & 0x7F) << ADDRESS_SHIFT) | ((long) (socket & 0x07) << SOCKET_SHIFT)
+                | ((long) (length & 0x03) << LENGTH_SHIFT) | ((write ? 1L : 0L) << WRITE_SHIFT)
+                | ((success ? 1L : 0L) << SUCCESS_SHIFT) | ((long) (busNumber & 0xFF) << BUS_SHIFT);
+    }
+
+    /**
+     * Decodes the most recent records, the oldest first.
+     *
+     * @param count the maximum number of records
+     * @return one line per record
+     */
+    public List<String> dump(int count) {
+        long last = next.get();
+        long first = Math.max(Math.max(0, last - getCapacity()), last - count);
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+
+        List<String> lines = new ArrayList<>((int) (last - first));
+        for (long sequence = first; sequence < last; sequence++) {
+            int slot = (int) (sequence & mask);
+            lines.add(decode(format, times[slot], durations[slot], records[slot]));
+        }
+        return lines;
+    }
+
+    private String decode(SimpleDateFormat format, long time, long duration, long record) {
+        int length = (int) ((record >> LENGTH_SHIFT) & 0x03);
+        int value = (int) ((record >> VALUE_SHIFT) & 0xFFFFFF);
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            data.append(" 0x").append(HexUtils.toHex((value >> (i * 8)) & 0xFF));
+        }
+
+        return String.format("%s bus %d socket %d device 0x%s %s register 0x%s data%s %d us %s",
+                format.format(new Date(baseMillis + (time - baseNanos) / 1_000_000)), (record >> BUS_SHIFT) & 0xFF,
+                (record >> SOCKET_SHIFT) & 0x07, HexUtils.toHex((int) ((record >> ADDRESS_SHIFT) & 0x7F)),
+                ((record >> WRITE_SHIFT) & 1) == 1 ? "write" : "read",
+                HexUtils.toHex((int) ((record >> REGISTER_SHIFT) & 0xFF)), data, duration / 1000,
+                ((record >> SUCCESS_SHIFT) & 1) == 1 ? "OK" : "FAILED");
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.i2c;
+
+import java.io.IOException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link I2CVerifyException} is thrown when registers read back a different value than was written.
+ * The transfers themselves succeeded, so the state of the device is not what the binding intended.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class I2CVerifyException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public I2CVerifyException(int address, int register, int written, int readBack) {
+        super("Wrote 0x" + Integer.toHexString(written) + " to register 0x" + HexUtils.toHex(register)
+                + " of device 0x" + HexUtils.toHex(address) + " but read back 0x" + Integer.toHexString(readBack));
+    }
+}
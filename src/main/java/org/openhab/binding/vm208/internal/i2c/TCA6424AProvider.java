@@ -24,7 +24,6 @@ import com.pi4j.io.gpio.PinMode;
 import com.pi4j.io.gpio.PinState;
 import com.pi4j.io.i2c.I2CBus;
 import com.pi4j.io.i2c.I2CDevice;
-import com.pi4j.io.i2c.I2CFactory;
 import com.pi4j.io.i2c.I2CFactory.UnsupportedBusNumberException;
 
 /**
@@ -58,6 +57,14 @@ public class TCA6424AProvider {
     public static final int REGISTER_DIRECTION1 = 0x0D;
     public static final int REGISTER_DIRECTION2 = 0x0E;
 
+    // A write which does not read back is written once more before it fails
+    private static final int VERIFY_ATTEMPTS = 2;
+
+    // Setting this bit in the command byte makes the chip increment the register
+    // address after every byte, rolling over within the group of three registers
+    public static final int AUTO_INCREMENT = 0x80;
+    public static final int REGISTER_GROUP_SIZE = 3;
+
     private int currentInputStates0 = 0;
     private int currentInputStates1 = 0;
     private int currentInputStates2 = 0;
@@ -66,11 +73,8 @@ public class TCA6424AProvider {
     private int currentOutputStates1 = 0;
     private int currentOutputStates2 = 0;
 
-    @SuppressWarnings("unused")
     private int currentPolarity0 = 0;
-    @SuppressWarnings("unused")
     private int currentPolarity1 = 0;
-    @SuppressWarnings("unused")
     private int currentPolarity2 = 0;
 
     private int currentDirection0 = 0;
@@ -80,17 +84,28 @@ public class TCA6424AProvider {
     private boolean i2cBusOwner = false;
     private I2CBus bus;
     private I2CDevice device;
+    private final int address;
+
+    private final byte[] groupBuffer = new byte[REGISTER_GROUP_SIZE];
+    private final byte[] writeBuffer = new byte[REGISTER_GROUP_SIZE];
+    private final byte[] verifyBuffer = new byte[REGISTER_GROUP_SIZE];
+    private boolean verifyWrites;
+
+    private @Nullable I2CMetrics metrics;
+    private @Nullable I2CTracer tracer;
+    private int socket;
+    private I2CRetryPolicy retryPolicy = I2CRetryPolicy.DEFAULT;
 
     public TCA6424AProvider(int busNumber, int address) throws UnsupportedBusNumberException, IOException {
-        // create I2C communications bus instance
-        this(I2CFactory.getInstance(busNumber), address);
+        // borrow the shared I2C communications bus instance
+        this(I2CBusRegistry.acquire(busNumber), address);
         i2cBusOwner = true;
     }
 
     public TCA6424AProvider(int busNumber, int address, int pollingTime)
             throws IOException, UnsupportedBusNumberException {
-        // create I2C communications bus instance
-        this(I2CFactory.getInstance(busNumber), address, pollingTime);
+        // borrow the shared I2C communications bus instance
+        this(I2CBusRegistry.acquire(busNumber), address, pollingTime);
         i2cBusOwner = true;
     }
 
@@ -104,93 +119,251 @@ public class TCA6424AProvider {
 
         // create I2C device instance
         device = bus.getDevice(address);
+        this.address = address;
+    }
+
+    /**
+     * Counts every transfer of this chip in the metrics of its bus.
+     *
+     * @param metrics the metrics of the bus
+     * @param socket the mux socket of the chip, 0 if it is not behind a mux
+     */
+    public void setMetrics(I2CMetrics metrics, int socket) {
+        this.metrics = metrics;
+        this.socket = socket;
+    }
+
+    /**
+     * Records every transfer of this chip in the trace of its bus.
+     *
+     * @param tracer the tracer of the bus
+     */
+    public void setTracer(I2CTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Sets how long failed transfers are retried, {@link I2CRetryPolicy#DEFAULT} unless set.
+     *
+     * @param retryPolicy the policy
+     */
+    public void setRetryPolicy(I2CRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
     }
 
-    public boolean setDirectionSettings(int direction0, int direction1, int direction2) {
+    /**
+     * Reads every output write back in the same burst, see {@link #setOutputs(int, int)}.
+     *
+     * @param verifyWrites true to verify the output writes
+     */
+    public void setVerifyWrites(boolean verifyWrites) {
+        this.verifyWrites = verifyWrites;
+    }
+
+    public boolean setDirectionSettings(int direction0, int direction1, int direction2) throws IOException {
         boolean wroteNewSettings = false;
 
-        try {
-            readSettings();
+        readSettings();
 
-            if (currentDirection0 != direction0) {
-                writeToDevice(REGISTER_DIRECTION0, (byte) direction0);
-                currentDirection0 = direction0;
-                wroteNewSettings = true;
-            }
-            if (currentDirection1 != direction1) {
-                writeToDevice(REGISTER_DIRECTION1, (byte) direction1);
-                currentDirection1 = direction1;
-                wroteNewSettings = true;
-            }
-            if (currentDirection2 != direction2) {
-                writeToDevice(REGISTER_DIRECTION2, (byte) direction2);
-                currentDirection2 = direction2;
-                wroteNewSettings = true;
-            }
-        } catch (Exception ex) {
-            logger.error("{}", ex.toString());
+        if (currentDirection0 != direction0) {
+            writeToDevice(REGISTER_DIRECTION0, (byte) direction0);
+            currentDirection0 = direction0;
+            wroteNewSettings = true;
+        }
+        if (currentDirection1 != direction1) {
+            writeToDevice(REGISTER_DIRECTION1, (byte) direction1);
+            currentDirection1 = direction1;
+            wroteNewSettings = true;
+        }
+        if (currentDirection2 != direction2) {
+            writeToDevice(REGISTER_DIRECTION2, (byte) direction2);
+            currentDirection2 = direction2;
+            wroteNewSettings = true;
         }
 
         return wroteNewSettings;
     }
 
-    public void setOutput0Settings(int output0) {
-        try {
-            writeToDevice(REGISTER_OUTPUT0, (byte) output0);
-            currentOutputStates0 = output0;
-        } catch (Exception ex) {
-            logger.error("{}", ex.toString());
-        }
+    public void setOutput0Settings(int output0) throws IOException {
+        writeToDevice(REGISTER_OUTPUT0, (byte) output0);
+        currentOutputStates0 = output0;
     }
 
-    public void setOutput1Settings(int output1) {
-        try {
-            writeToDevice(REGISTER_OUTPUT1, (byte) output1);
-            currentOutputStates1 = output1;
-        } catch (Exception ex) {
-            logger.error("{}", ex.toString());
-        }
+    public void setOutput1Settings(int output1) throws IOException {
+        writeToDevice(REGISTER_OUTPUT1, (byte) output1);
+        currentOutputStates1 = output1;
     }
 
-    public void setOutput2Settings(int output2) {
-        try {
-            writeToDevice(REGISTER_OUTPUT2, (byte) output2);
-            currentOutputStates2 = output2;
-        } catch (Exception ex) {
-            logger.error("{}", ex.toString());
-        }
+    public void setOutput2Settings(int output2) throws IOException {
+        writeToDevice(REGISTER_OUTPUT2, (byte) output2);
+        currentOutputStates2 = output2;
     }
 
-    public void readSettings() {
-        try {
-            // set all default pins polarities
-            currentPolarity0 = readFromDevice(REGISTER_POLARITY0);
-            currentPolarity1 = readFromDevice(REGISTER_POLARITY1);
-            currentPolarity2 = readFromDevice(REGISTER_POLARITY2);
-
-            // set all default pins directions
-            currentDirection0 = readFromDevice(REGISTER_DIRECTION0);
-            currentDirection1 = readFromDevice(REGISTER_DIRECTION1);
-            currentDirection2 = readFromDevice(REGISTER_DIRECTION2);
-        } catch (IOException ex) {
-            logger.error("{}", ex.toString());
+    /**
+     * Writes several output banks at once.
+     * Only the bits set in the mask are taken from the image, the other bits keep their current state.
+     * All banks between the first and the last changed bank are written in one auto-increment block write.
+     *
+     * @param outputImage the packed output image, bank 0 in bits 0-7, bank 1 in bits 8-15 and bank 2 in bits 16-23
+     * @param changeMask the bits of the image which should be applied
+     * @throws IOException if the chip did not accept the write, the cached outputs are unchanged then
+     * @throws I2CVerifyException if write verification is enabled and the written registers read back a
+     *             different value twice, the cached outputs are those read back then
+     */
+    public void setOutputs(int outputImage, int changeMask) throws IOException {
+        int currentImage = getOutputImage();
+        int newImage = (currentImage & ~changeMask) | (outputImage & changeMask);
+        int dirty = currentImage ^ newImage;
+        if (dirty == 0) {
+            return;
+        }
+
+        // determine the range of banks to write
+        int firstBank = (dirty & 0x0000FF) != 0 ? 0 : (dirty & 0x00FF00) != 0 ? 1 : 2;
+        int lastBank = (dirty & 0xFF0000) != 0 ? 2 : (dirty & 0x00FF00) != 0 ? 1 : 0;
+        int length = lastBank - firstBank + 1;
+        for (int i = 0; i < length; i++) {
+            writeBuffer[i] = (byte) (newImage >> ((firstBank + i) * 8));
+        }
+
+        writeGroupToDevice(REGISTER_OUTPUT0 + firstBank, writeBuffer, length);
+        if (verifyWrites) {
+            verifyOutputs(firstBank, writeBuffer, length);
         }
+        currentOutputStates0 = newImage & 0xFF;
+        currentOutputStates1 = (newImage >> 8) & 0xFF;
+        currentOutputStates2 = (newImage >> 16) & 0xFF;
     }
 
-    public void readStates() {
-        try {
-            // read initial GPIO pin states
-            currentInputStates0 = readFromDevice(REGISTER_INPUT0);
-            currentInputStates1 = readFromDevice(REGISTER_INPUT1);
-            currentInputStates2 = readFromDevice(REGISTER_INPUT2);
-
-            // set default GPIO
-            currentOutputStates0 = readFromDevice(REGISTER_OUTPUT0);
-            currentOutputStates1 = readFromDevice(REGISTER_OUTPUT1);
-            currentOutputStates2 = readFromDevice(REGISTER_OUTPUT2);
-        } catch (IOException ex) {
-            logger.error("{}", ex.toString());
+    /**
+     * Returns the cached output registers as one packed image.
+     *
+     * @return bank 0 in bits 0-7, bank 1 in bits 8-15 and bank 2 in bits 16-23
+     */
+    public int getOutputImage() {
+        return currentOutputStates0 | (currentOutputStates1 << 8) | (currentOutputStates2 << 16);
+    }
+
+    /**
+     * Returns the cached state of every pin as one packed image.
+     * Like {@link #getState(Pin)} the input register is used for input pins and the output register for output
+     * pins.
+     *
+     * @return bank 0 in bits 0-7, bank 1 in bits 8-15 and bank 2 in bits 16-23
+     */
+    public int getStateImage() {
+        int states0 = (currentInputStates0 & currentDirection0) | (currentOutputStates0 & ~currentDirection0);
+        int states1 = (currentInputStates1 & currentDirection1) | (currentOutputStates1 & ~currentDirection1);
+        int states2 = (currentInputStates2 & currentDirection2) | (currentOutputStates2 & ~currentDirection2);
+        return (states0 & 0xFF) | ((states1 & 0xFF) << 8) | ((states2 & 0xFF) << 16);
+    }
+
+    /**
+     * Returns the cached direction registers as one packed image.
+     *
+     * @return bank 0 in bits 0-7, bank 1 in bits 8-15 and bank 2 in bits 16-23, a set bit is an input
+     */
+    public int getDirectionImage() {
+        return (currentDirection0 & 0xFF) | ((currentDirection1 & 0xFF) << 8) | ((currentDirection2 & 0xFF) << 16);
+    }
+
+    /**
+     * Returns the cached polarity registers as one packed image.
+     *
+     * @return bank 0 in bits 0-7, bank 1 in bits 8-15 and bank 2 in bits 16-23
+     */
+    public int getPolarityImage() {
+        return (currentPolarity0 & 0xFF) | ((currentPolarity1 & 0xFF) << 8) | ((currentPolarity2 & 0xFF) << 16);
+    }
+
+    /**
+     * Restores the configuration registers from an earlier session instead of reading them all.
+     * Only the direction registers are verified, with one burst read. A chip which has lost its power
+     * is back at its default directions, so it is detected.
+     *
+     * @param directionImage the direction registers of the earlier session
+     * @param polarityImage the polarity registers of the earlier session
+     * @return true if the chip still has these directions, false if it has to be configured again
+     * @throws IOException if the chip did not respond
+     */
+    public boolean restoreSettings(int directionImage, int polarityImage) throws IOException {
+        if (readDirectionSettings() != directionImage) {
+            return false;
         }
+
+        currentPolarity0 = polarityImage & 0xFF;
+        currentPolarity1 = (polarityImage >> 8) & 0xFF;
+        currentPolarity2 = (polarityImage >> 16) & 0xFF;
+        return true;
+    }
+
+    /**
+     * Reads the direction registers in one burst read.
+     * This also tells whether the chip is present at all.
+     *
+     * @return the direction registers as packed image, see {@link #getDirectionImage()}
+     * @throws IOException if the chip did not respond
+     */
+    public int readDirectionSettings() throws IOException {
+        readGroupFromDevice(REGISTER_DIRECTION0, groupBuffer);
+        currentDirection0 = groupBuffer[0] & 0xFF;
+        currentDirection1 = groupBuffer[1] & 0xFF;
+        currentDirection2 = groupBuffer[2] & 0xFF;
+        return getDirectionImage();
+    }
+
+    /**
+     * Reads the direction registers once, without retries, to check whether the chip responds.
+     *
+     * @throws IOException if the chip did not respond
+     */
+    public void probe() throws IOException {
+        readGroupFromDeviceOnce(REGISTER_DIRECTION0, groupBuffer, groupBuffer.length);
+        currentDirection0 = groupBuffer[0] & 0xFF;
+        currentDirection1 = groupBuffer[1] & 0xFF;
+        currentDirection2 = groupBuffer[2] & 0xFF;
+    }
+
+    public void readSettings() throws IOException {
+        // set all default pins polarities
+        readGroupFromDevice(REGISTER_POLARITY0, groupBuffer);
+        currentPolarity0 = groupBuffer[0] & 0xFF;
+        currentPolarity1 = groupBuffer[1] & 0xFF;
+        currentPolarity2 = groupBuffer[2] & 0xFF;
+
+        // set all default pins directions
+        readGroupFromDevice(REGISTER_DIRECTION0, groupBuffer);
+        currentDirection0 = groupBuffer[0] & 0xFF;
+        currentDirection1 = groupBuffer[1] & 0xFF;
+        currentDirection2 = groupBuffer[2] & 0xFF;
+    }
+
+    public void readStates() throws IOException {
+        // read initial GPIO pin states
+        readInputGroup();
+
+        // set default GPIO
+        readGroupFromDevice(REGISTER_OUTPUT0, groupBuffer);
+        currentOutputStates0 = groupBuffer[0] & 0xFF;
+        currentOutputStates1 = groupBuffer[1] & 0xFF;
+        currentOutputStates2 = groupBuffer[2] & 0xFF;
+    }
+
+    /**
+     * Reads the three input registers in one block transfer.
+     * The output registers are only written by this provider, so their shadow copies stay valid.
+     *
+     * @throws IOException if the chip did not respond, the cached inputs are unchanged then
+     */
+    public void readInputStates() throws IOException {
+        readInputGroup();
+    }
+
+    private void readInputGroup() throws IOException {
+        readGroupFromDevice(REGISTER_INPUT0, groupBuffer);
+        currentInputStates0 = groupBuffer[0] & 0xFF;
+        currentInputStates1 = groupBuffer[1] & 0xFF;
+        currentInputStates2 = groupBuffer[2] & 0xFF;
     }
 
     public String getName() {
@@ -307,84 +480,214 @@ public class TCA6424AProvider {
         return ((states >> (pinAddress - 1)) & 1) == 0 ? PinState.LOW : PinState.HIGH;
     }
 
-    public void setState(@Nullable Pin pin, @Nullable PinState state) {
+    public void setState(@Nullable Pin pin, @Nullable PinState state) throws IOException {
         if (pin == null || state == null) {
             return;
         }
 
-        try {
-            // determine the bank
-            int stateBank = pin.getAddress() / 8;
+        // determine the bank
+        int stateBank = pin.getAddress() / 8;
 
-            // determine pin address
-            int pinAddress = (pin.getAddress() % 8) + 1;
+        // determine pin address
+        int pinAddress = (pin.getAddress() % 8) + 1;
 
-            int states;
-            int register;
-            switch (stateBank) {
-                case 0:
-                    states = currentOutputStates0;
-                    register = REGISTER_OUTPUT0;
-                    break;
-                case 1:
-                    states = currentOutputStates1;
-                    register = REGISTER_OUTPUT1;
-                    break;
-                case 2:
-                    states = currentOutputStates2;
-                    register = REGISTER_OUTPUT2;
-                    break;
-                default:
-                    throw new IllegalArgumentException("stateBank = " + stateBank);
+        int states;
+        int register;
+        switch (stateBank) {
+            case 0:
+                states = currentOutputStates0;
+                register = REGISTER_OUTPUT0;
+                break;
+            case 1:
+                states = currentOutputStates1;
+                register = REGISTER_OUTPUT1;
+                break;
+            case 2:
+                states = currentOutputStates2;
+                register = REGISTER_OUTPUT2;
+                break;
+            default:
+                throw new IllegalArgumentException("stateBank = " + stateBank);
+        }
+
+        // determine state value for pin bit
+        if (state.isHigh()) {
+            states |= 1 << (pinAddress - 1);
+        } else {
+            states &= ~(1 << (pinAddress - 1));
+        }
+
+        // update state value
+        writeToDevice(register, (byte) states);
+        if (verifyWrites) {
+            writeBuffer[0] = (byte) states;
+            verifyOutputs(stateBank, writeBuffer, 1);
+        }
+
+        switch (stateBank) {
+            case 0:
+                currentOutputStates0 = states;
+                break;
+            case 1:
+                currentOutputStates1 = states;
+                break;
+            case 2:
+                currentOutputStates2 = states;
+                break;
+            default:
+                throw new IllegalArgumentException("stateBank = " + stateBank);
+        }
+    }
+
+    /**
+     * Reads the written output registers back in one burst, and writes them once more if they differ.
+     */
+    private void verifyOutputs(int firstBank, byte[] buffer, int length) throws IOException {
+        int register = REGISTER_OUTPUT0 + firstBank;
+        int written = pack(buffer, length);
+        for (int attempt = 1;; attempt++) {
+            readGroupFromDevice(register, verifyBuffer, length);
+            int readBack = pack(verifyBuffer, length);
+            if (readBack == written) {
+                return;
             }
+            if (attempt >= VERIFY_ATTEMPTS) {
+                // the cache follows the chip, not the intention
+                for (int i = 0; i < length; i++) {
+                    setOutputBank(firstBank + i, verifyBuffer[i] & 0xFF);
+                }
+                throw new I2CVerifyException(address, register, written, readBack);
+            }
+            logger.debug("0x{} register 0x{} reads back 0x{} instead of 0x{}, writing it again",
+                    HexUtils.toHex(address), HexUtils.toHex(register), Integer.toHexString(readBack),
+                    Integer.toHexString(written));
+            writeGroupToDevice(register, buffer, length);
+        }
+    }
 
-            // determine state value for pin bit
-            if (state.isHigh()) {
-                states |= 1 << (pinAddress - 1);
-            } else {
-                states &= ~(1 << (pinAddress - 1));
+    private void setOutputBank(int bank, int states) {
+        switch (bank) {
+            case 0:
+                currentOutputStates0 = states;
+                break;
+            case 1:
+                currentOutputStates1 = states;
+                break;
+            case 2:
+                currentOutputStates2 = states;
+                break;
+            default:
+                throw new IllegalArgumentException("stateBank = " + bank);
+        }
+    }
+
+    private void writeToDevice(int register, byte states) throws IOException {
+        if (logger.isDebugEnabled()) {
+            logger.debug("0x{} >> (write) 0x{} to 0x{}", HexUtils.toHex(address), HexUtils.toHex(states),
+                    HexUtils.toHex(register));
+        }
+        long firstStart = System.nanoTime();
+        for (int attempt = 1;; attempt++) {
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                device.write(register, states);
+                success = true;
+                return;
+            } catch (IOException ex) {
+                retryPolicy.awaitRetry(I2CMetrics.classOf(register), attempt, firstStart, ex);
+            } finally {
+                record(register, true, states & 0xFF, 1, start, success);
             }
+        }
+    }
 
-            // update state value
-            writeToDevice(register, (byte) states);
+    private void writeGroupToDevice(int register, byte[] buffer, int length) throws IOException {
+        if (logger.isDebugEnabled()) {
+            logger.debug("0x{} >> (write block) {} bytes to 0x{}", HexUtils.toHex(address), length,
+                    HexUtils.toHex(register));
+        }
+        long firstStart = System.nanoTime();
+        for (int attempt = 1;; attempt++) {
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                device.write(AUTO_INCREMENT | register, buffer, 0, length);
+                success = true;
+                return;
+            } catch (IOException ex) {
+                retryPolicy.awaitRetry(I2CMetrics.classOf(register), attempt, firstStart, ex);
+            } finally {
+                record(register, true, pack(buffer, length), length, start, success);
+            }
+        }
+    }
 
-            switch (stateBank) {
-                case 0:
-                    currentOutputStates0 = states;
-                    break;
-                case 1:
-                    currentOutputStates1 = states;
-                    break;
-                case 2:
-                    currentOutputStates2 = states;
-                    break;
-                default:
-                    throw new IllegalArgumentException("stateBank = " + stateBank);
+    private void readGroupFromDevice(int register, byte[] buffer) throws IOException {
+        readGroupFromDevice(register, buffer, buffer.length);
+    }
+
+    private void readGroupFromDevice(int register, byte[] buffer, int length) throws IOException {
+        long firstStart = System.nanoTime();
+        for (int attempt = 1;; attempt++) {
+            try {
+                readGroupFromDeviceOnce(register, buffer, length);
+                break;
+            } catch (IOException ex) {
+                retryPolicy.awaitRetry(I2CMetrics.classOf(register), attempt, firstStart, ex);
             }
-        } catch (IOException | IllegalArgumentException ex) {
-            logger.error("{}", ex.toString());
+        }
+        if (logger.isDebugEnabled()) {
+            StringBuilder data = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                data.append(" 0x").append(HexUtils.toHex(buffer[i] & 0xFF));
+            }
+            logger.debug("0x{} >> (read block){} from 0x{}", HexUtils.toHex(address), data, HexUtils.toHex(register));
         }
     }
 
-    private void writeToDevice(int register, byte states) throws IOException {
-        logger.debug("0x{} >> (write) 0x{} to 0x{}", HexUtils.toHex(device.getAddress()), HexUtils.toHex(states),
-                HexUtils.toHex(register));
-        device.write(register, states);
+    private void readGroupFromDeviceOnce(int register, byte[] buffer, int length) throws IOException {
+        long start = System.nanoTime();
+        int received = -1;
+        try {
+            received = device.read(AUTO_INCREMENT | register, buffer, 0, length);
+        } finally {
+            int count = Math.max(received, 0);
+            record(register, false, pack(buffer, count), count, start, received == length);
+        }
+        if (received != length) {
+            throw new IOException("Expected " + length + " bytes from register 0x" + HexUtils.toHex(register)
+                    + " but got " + received);
+        }
     }
 
-    private int readFromDevice(int register) throws IOException {
-        int result = device.read(register);
-        logger.debug("0x{} >> (read) 0x{} from 0x{}", HexUtils.toHex(device.getAddress()), HexUtils.toHex(result),
-                HexUtils.toHex(register));
-        return result;
+    private static int pack(byte[] buffer, int length) {
+        int value = 0;
+        for (int i = 0; i < length; i++) {
+            value |= (buffer[i] & 0xFF) << (i * 8);
+        }
+        return value;
+    }
+
+    private void record(int register, boolean write, int value, int length, long start, boolean success) {
+        long duration = System.nanoTime() - start;
+        I2CMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.recordTransfer(socket, I2CMetrics.classOf(register), 1 + length, duration, success);
+        }
+        I2CTracer tracer = this.tracer;
+        if (tracer != null) {
+            tracer.trace(socket, address, register, value, length, write, start, duration, success);
+        }
     }
 
     public void shutdown() {
         try {
-            // if we are the owner of the I2C bus, then close it
+            // if we borrowed the I2C bus, then give it back
             if (i2cBusOwner) {
-                // close the I2C bus communication
-                bus.close();
+                // the last user closes the I2C bus communication
+                I2CBusRegistry.release(bus);
+                i2cBusOwner = false;
             }
         } catch (IOException ex) {
             logger.error("{}", ex.toString());
@@ -15,12 +15,13 @@ package org.openhab.binding.vm208.internal.i2c;
 import java.io.IOException;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.vm208.internal.i2c.I2CMetrics.RegisterClass;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.pi4j.io.i2c.I2CBus;
 import com.pi4j.io.i2c.I2CDevice;
-import com.pi4j.io.i2c.I2CFactory;
 import com.pi4j.io.i2c.I2CFactory.UnsupportedBusNumberException;
 
 /**
@@ -44,16 +45,22 @@ public class TCA9544Provider {
 
     private int currentStates = 0;
 
+    // The selected channel is cached, so selecting the same channel again costs no bus traffic
+    private int selectedChannel = 0;
+    private boolean selectedChannelKnown = false;
+
+    private @Nullable I2CMetrics metrics;
+    private @Nullable I2CTracer tracer;
+
     private boolean i2cBusOwner = false;
     private I2CBus bus;
     private I2CDevice device;
+    private final int address;
+    private final I2CRetryPolicy retryPolicy = I2CRetryPolicy.DEFAULT;
 
     public TCA9544Provider(int busNumber, int address) throws UnsupportedBusNumberException, IOException {
-        // create I2C communications bus instance
-        this(I2CFactory.getInstance(busNumber), address, DEFAULT_POLLING_TIME);
-
-        // create I2C device instance
-        device = bus.getDevice(address);
+        // borrow the shared I2C communications bus instance
+        this(I2CBusRegistry.acquire(busNumber), address, DEFAULT_POLLING_TIME);
 
         i2cBusOwner = true;
     }
@@ -64,6 +71,25 @@ public class TCA9544Provider {
 
         // create I2C device instance
         device = bus.getDevice(address);
+        this.address = address;
+    }
+
+    /**
+     * Counts every transfer of this chip in the metrics of its bus.
+     *
+     * @param metrics the metrics of the bus
+     */
+    public void setMetrics(I2CMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Records every transfer of this chip in the trace of its bus.
+     *
+     * @param tracer the tracer of the bus
+     */
+    public void setTracer(I2CTracer tracer) {
+        this.tracer = tracer;
     }
 
     public String getName() {
@@ -76,26 +102,57 @@ public class TCA9544Provider {
     // 110 = channel 3
     // 111 = channel 4
     public void changeChannel(byte channelSelect) throws IOException {
-        if (currentChannel() != channelSelect) {
+        if (!selectedChannelKnown) {
+            currentChannel();
+        }
+        if (selectedChannel != channelSelect) {
             if (channelSelect == 0) {
                 currentStates = (currentStates & 0b11110000);
             } else {
                 currentStates = ((currentStates & 0b11110000) | (0b100 | (channelSelect - 1)));
             }
-            writeToDevice((byte) currentStates);
+            try {
+                writeToDevice((byte) currentStates);
+                selectedChannel = channelSelect;
+            } catch (IOException ex) {
+                // the chip state is unknown now, read it back before the next change
+                invalidate();
+                throw ex;
+            }
         }
     }
 
     public int readInterrupts() throws IOException {
-        currentStates = readFromDevice();
-        logger.debug("0x{} << (read interrupts) 0x{}", HexUtils.toHex(device.getAddress()),
-                HexUtils.toHex(currentStates));
+        try {
+            currentStates = readFromDevice();
+        } catch (IOException ex) {
+            invalidate();
+            throw ex;
+        }
+        selectedChannel = decodeChannel(currentStates);
+        selectedChannelKnown = true;
+        if (logger.isDebugEnabled()) {
+            logger.debug("0x{} << (read interrupts) 0x{}", HexUtils.toHex(address), HexUtils.toHex(currentStates));
+        }
         return currentStates >> 4;
     }
 
     public int currentChannel() throws IOException {
         currentStates = readFromDevice();
-        int channel = (currentStates & 0b00001111);
+        selectedChannel = decodeChannel(currentStates);
+        selectedChannelKnown = true;
+        return selectedChannel;
+    }
+
+    /**
+     * Forgets the cached channel selection, the next change of channel reads the control register first.
+     */
+    private void invalidate() {
+        selectedChannelKnown = false;
+    }
+
+    private int decodeChannel(int states) {
+        int channel = (states & 0b00001111);
         if (channel != 0) {
             channel = channel - 3;
         }
@@ -103,22 +160,67 @@ public class TCA9544Provider {
     }
 
     private void writeToDevice(byte states) throws IOException {
-        logger.debug("0x{} >> (write) 0x{} to chip", HexUtils.toHex(device.getAddress()), HexUtils.toHex(states));
-        device.write(states);
+        if (logger.isDebugEnabled()) {
+            logger.debug("0x{} >> (write) 0x{} to chip", HexUtils.toHex(address), HexUtils.toHex(states));
+        }
+        long firstStart = System.nanoTime();
+        for (int attempt = 1;; attempt++) {
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                device.write(states);
+                success = true;
+                return;
+            } catch (IOException ex) {
+                retryPolicy.awaitRetry(RegisterClass.MUX, attempt, firstStart, ex);
+            } finally {
+                record(true, states & 0xFF, start, success);
+            }
+        }
     }
 
     private int readFromDevice() throws IOException {
-        int result = device.read();
-        logger.debug("0x{} >> (read) 0x{} from chip", HexUtils.toHex(device.getAddress()), HexUtils.toHex(result));
+        long firstStart = System.nanoTime();
+        int result = 0;
+        for (int attempt = 1;; attempt++) {
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                result = device.read();
+                success = true;
+                break;
+            } catch (IOException ex) {
+                retryPolicy.awaitRetry(RegisterClass.MUX, attempt, firstStart, ex);
+            } finally {
+                record(false, result, start, success);
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("0x{} >> (read) 0x{} from chip", HexUtils.toHex(address), HexUtils.toHex(result));
+        }
         return result;
     }
 
+    private void record(boolean write, int value, long start, boolean success) {
+        long duration = System.nanoTime() - start;
+        I2CMetrics metrics = this.metrics;
+        if (metrics != null) {
+            // the mux is in front of the sockets, its transfers are counted without socket
+            metrics.recordTransfer(0, RegisterClass.MUX, 1, duration, success);
+        }
+        I2CTracer tracer = this.tracer;
+        if (tracer != null) {
+            tracer.trace(0, address, REGISTER_CONTROL, value, 1, write, start, duration, success);
+        }
+    }
+
     public void shutdown() {
         try {
-            // if we are the owner of the I2C bus, then close it
+            // if we borrowed the I2C bus, then give it back
             if (i2cBusOwner) {
-                // close the I2C bus communication
-                bus.close();
+                // the last user closes the I2C bus communication
+                I2CBusRegistry.release(bus);
+                i2cBusOwner = false;
             }
         } catch (IOException e) {
             throw new RuntimeException(e);
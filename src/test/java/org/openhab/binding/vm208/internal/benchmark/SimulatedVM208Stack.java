@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.benchmark;
+
+import static org.openhab.binding.vm208.internal.VM208BindingConstants.*;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.thing.Bridge;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingStatus;
+import org.eclipse.smarthome.core.thing.ThingStatusInfo;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.thing.binding.ThingHandlerCallback;
+import org.eclipse.smarthome.core.thing.binding.builder.BridgeBuilder;
+import org.eclipse.smarthome.core.thing.binding.builder.ThingBuilder;
+import org.openhab.binding.vm208.internal.handler.VM208BusRegistry;
+import org.openhab.binding.vm208.internal.handler.VM208ExHandler;
+import org.openhab.binding.vm208.internal.handler.VM208IntHandler;
+import org.openhab.binding.vm208.internal.i2c.simulation.SimulatedI2CBus;
+import org.openhab.binding.vm208.internal.i2c.simulation.SimulatedI2CFactoryProvider;
+import org.openhab.binding.vm208.internal.i2c.simulation.SimulatedTCA6424A;
+import org.openhab.binding.vm208.internal.i2c.simulation.SimulatedTCA9544;
+
+/**
+ * The {@link SimulatedVM208Stack} wires a VM208Int bridge and one VM208Ex card
+ * to the simulated I2C bus, outside of the openHAB framework.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SimulatedVM208Stack {
+
+    private static final int BUS_NUMBER = 1;
+    private static final int SOCKET_NUMBER = 1;
+
+    // Polls are pushed far out, so they do not show up in the measurements
+    private static final int POLLING_INTERVAL = 3_600_000;
+
+    public final SimulatedI2CBus bus;
+    public final SimulatedTCA6424A card;
+    public final VM208BusRegistry busRegistry = new VM208BusRegistry();
+    public final Bridge bridge;
+    public final Thing thing;
+    public final VM208IntHandler intHandler;
+    public final VM208ExHandler exHandler;
+
+    private volatile long stateUpdates;
+    private final CountDownLatch cardOnline = new CountDownLatch(1);
+
+    public SimulatedVM208Stack(long latencyNanos) {
+        SimulatedI2CFactoryProvider simulation = SimulatedI2CFactoryProvider.install();
+        bus = simulation.getSimulatedBus(BUS_NUMBER);
+        bus.setLatency(latencyNanos, TimeUnit.NANOSECONDS);
+        SimulatedTCA9544 mux = bus.getInterface(SimulatedI2CFactoryProvider.DEFAULT_INTERFACE_ADDRESS);
+        SimulatedTCA6424A socketCard = mux != null ? mux.getCard(SOCKET_NUMBER) : null;
+        if (socketCard == null) {
+            throw new IllegalStateException("The simulated bus has no card in socket " + SOCKET_NUMBER);
+        }
+        card = socketCard;
+
+        Map<String, Object> bridgeConfiguration = new HashMap<>();
+        bridgeConfiguration.put(ADDRESS, new BigDecimal(70));
+        bridgeConfiguration.put(BUSNUMBER, new BigDecimal(BUS_NUMBER));
+        bridgeConfiguration.put("pollingInterval", new BigDecimal(POLLING_INTERVAL));
+        bridgeConfiguration.put("maxPollingInterval", new BigDecimal(POLLING_INTERVAL));
+        bridge = BridgeBuilder.create(THING_TYPE_VM208INT, "benchmark")
+                .withConfiguration(new Configuration(bridgeConfiguration)).build();
+
+        Map<String, Object> thingConfiguration = new HashMap<>();
+        thingConfiguration.put(SOCKET, new BigDecimal(SOCKET_NUMBER));
+        thingConfiguration.put(LEDREFLECTSRELAYSTATUS, Boolean.TRUE);
+        thing = ThingBuilder.create(THING_TYPE_VM208EX, new ThingUID(THING_TYPE_VM208EX, bridge.getUID(), "card"))
+                .withBridge(bridge.getUID()).withConfiguration(new Configuration(thingConfiguration)).build();
+
+        ThingHandlerCallback callback = createCallback();
+
+        intHandler = new VM208IntHandler(busRegistry, bridge);
+        intHandler.setCallback(callback);
+        bridge.setHandler(intHandler);
+        intHandler.initialize();
+
+        exHandler = new VM208ExHandler(thing);
+        exHandler.setCallback(callback);
+        thing.setHandler(exHandler);
+        exHandler.initialize();
+
+        // the card is configured by the initialization sweep of the interface
+        try {
+            if (!cardOnline.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("The simulated card did not come online");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits until every command queued for the card has been written.
+     * With a sticky socket this costs no bus transfer.
+     */
+    public void awaitCommands() {
+        intHandler.sendToSocket(exHandler, () -> {
+        });
+    }
+
+    public long getStateUpdates() {
+        return stateUpdates;
+    }
+
+    public void dispose() {
+        exHandler.dispose();
+        intHandler.dispose();
+        busRegistry.dispose();
+    }
+
+    private ThingHandlerCallback createCallback() {
+        // every channel is linked, all other framework calls are ignored
+        return (ThingHandlerCallback) Proxy.newProxyInstance(ThingHandlerCallback.class.getClassLoader(),
+                new Class<?>[] { ThingHandlerCallback.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isChannelLinked":
+                            return Boolean.TRUE;
+                        case "getBridge":
+                            return bridge;
+                        case "stateUpdated":
+                            stateUpdates++;
+                            return null;
+                        case "statusUpdated":
+                            if (args[0] == thing && ((ThingStatusInfo) args[1]).getStatus() == ThingStatus.ONLINE) {
+                                cardOnline.countDown();
+                            }
+                            return null;
+                        default:
+                            return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+                    }
+                });
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.openhab.binding.vm208.internal.VM208BindingConstants;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * The {@link VM208Benchmark} measures the command and interrupt paths against the simulated bus.
+ * Besides the throughput, every benchmark reports the I2C transfers per operation,
+ * which decides the latency on a real bus. An iteration fails when a path needs more transfers
+ * per operation than it is expected to, see {@link Transfers#maxTransfersPerOperation(String)}.
+ * Add {@code -prof gc} for the allocation rate.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VM208Benchmark {
+
+    @State(Scope.Benchmark)
+    public static class Stack {
+
+        /**
+         * Latency of every I2C transfer, 100 kHz buses need about 300 us for a register access
+         */
+        @Param({ "0", "300000" })
+        public long latencyNanos;
+
+        public @NonNullByDefault({}) SimulatedVM208Stack stack;
+        public @NonNullByDefault({}) ChannelUID relayChannel;
+        public @NonNullByDefault({}) ChannelUID ledChannel;
+
+        private boolean relayOn;
+        private boolean ledOn;
+        private boolean buttonPressed;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            stack = new SimulatedVM208Stack(latencyNanos);
+            relayChannel = new ChannelUID(stack.thing.getUID(), VM208BindingConstants.RELAY_1,
+                    VM208BindingConstants.RELAY);
+            ledChannel = new ChannelUID(stack.thing.getUID(), VM208BindingConstants.RELAY_1,
+                    VM208BindingConstants.LED);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            stack.dispose();
+        }
+
+        OnOffType toggleRelay() {
+            relayOn = !relayOn;
+            return relayOn ? OnOffType.ON : OnOffType.OFF;
+        }
+
+        OnOffType toggleLed() {
+            ledOn = !ledOn;
+            return ledOn ? OnOffType.ON : OnOffType.OFF;
+        }
+
+        void toggleButton() {
+            buttonPressed = !buttonPressed;
+            // the first button of socket 1, active low
+            stack.card.setInput(8, !buttonPressed);
+        }
+    }
+
+    /**
+     * Reports the I2C transfers of the operations, and checks the transfers per operation after every iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Transfers {
+        public long i2cTransfers;
+        public long operations;
+        public long stateUpdates;
+
+        private long startTransfers;
+        private long startStateUpdates;
+
+        @Setup(Level.Iteration)
+        public void start(Stack stack) {
+            i2cTransfers = 0;
+            operations = 0;
+            stateUpdates = 0;
+            startTransfers = stack.stack.bus.getTransactionCount();
+            startStateUpdates = stack.stack.getStateUpdates();
+        }
+
+        @TearDown(Level.Iteration)
+        public void check(BenchmarkParams params) {
+            String benchmark = params.getBenchmark();
+            String path = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+            double transfersPerOperation = operations == 0 ? 0 : (double) i2cTransfers / operations;
+            double max = maxTransfersPerOperation(path);
+            System.out.printf("%s: %.3f I2C transfers per operation, at most %.1f expected%n", path,
+                    transfersPerOperation, max);
+            if (transfersPerOperation > max) {
+                throw new IllegalStateException(String.format(
+                        "%s needs %.3f I2C transfers per operation, at most %.1f expected", path,
+                        transfersPerOperation, max));
+            }
+        }
+
+        /**
+         * Returns the transfers an operation of a path may need on a sticky socket.
+         *
+         * @param path the name of the benchmark method
+         * @return the highest number of transfers per operation
+         */
+        static double maxTransfersPerOperation(String path) {
+            switch (path) {
+                case "relayCommand":
+                    // the relay and its led in one block write
+                    return 1;
+                case "ledCommand":
+                    // one register write
+                    return 1;
+                case "interruptUpdate":
+                    // one burst read of the inputs, plus the debouncing reads of a button which keeps changing
+                    return 1.5;
+                case "stateRead":
+                    return 0;
+                default:
+                    throw new IllegalArgumentException("No expected transfers for " + path);
+            }
+        }
+
+        void count(Stack stack) {
+            operations++;
+            i2cTransfers = stack.stack.bus.getTransactionCount() - startTransfers;
+            stateUpdates = stack.stack.getStateUpdates() - startStateUpdates;
+        }
+    }
+
+    @Benchmark
+    public void relayCommand(Stack stack, Transfers transfers) {
+        // handleCommand -> sendToSocketAsync -> setOutputs, the led reflects the relay
+        stack.stack.exHandler.handleCommand(stack.relayChannel, stack.toggleRelay());
+        stack.stack.awaitCommands();
+        transfers.count(stack);
+    }
+
+    @Benchmark
+    public void ledCommand(Stack stack, Transfers transfers) {
+        // handleCommand -> sendToSocketAsync -> setState
+        stack.stack.exHandler.handleCommand(stack.ledChannel, stack.toggleLed());
+        stack.stack.awaitCommands();
+        transfers.count(stack);
+    }
+
+    @Benchmark
+    public boolean interruptUpdate(Stack stack, Transfers transfers) {
+        stack.toggleButton();
+        boolean changed = stack.stack.exHandler.fetchUpdate(System.nanoTime());
+        transfers.count(stack);
+        return changed;
+    }
+
+    @Benchmark
+    public boolean stateRead(Stack stack, Transfers transfers) {
+        boolean on = stack.stack.exHandler.isRelayOn(0);
+        transfers.count(stack);
+        return on;
+    }
+}
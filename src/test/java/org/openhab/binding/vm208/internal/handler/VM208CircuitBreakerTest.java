@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.handler;
+
+import static org.junit.Assert.*;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.Test;
+
+/**
+ * Tests when the {@link VM208CircuitBreaker} trips and closes.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class VM208CircuitBreakerTest {
+
+    private final VM208CircuitBreaker breaker = new VM208CircuitBreaker();
+
+    @Test
+    public void breakerStartsClosed() {
+        assertFalse(breaker.isOpen());
+    }
+
+    @Test
+    public void breakerTripsAtTheThreshold() {
+        for (int i = 1; i < VM208CircuitBreaker.FAILURE_THRESHOLD; i++) {
+            assertFalse(breaker.recordFailure());
+            assertFalse(breaker.isOpen());
+        }
+
+        assertTrue(breaker.recordFailure());
+        assertTrue(breaker.isOpen());
+
+        // only the failure which opened the breaker reports it
+        assertFalse(breaker.recordFailure());
+    }
+
+    @Test
+    public void successResetsTheFailures() {
+        for (int i = 1; i < VM208CircuitBreaker.FAILURE_THRESHOLD; i++) {
+            breaker.recordFailure();
+        }
+        breaker.recordSuccess();
+
+        assertFalse(breaker.recordFailure());
+        assertFalse(breaker.isOpen());
+    }
+
+    @Test
+    public void openReportsWhetherItWasClosed() {
+        assertTrue(breaker.open());
+        assertFalse(breaker.open());
+        assertTrue(breaker.isOpen());
+    }
+
+    @Test
+    public void successfulProbeClosesTheBreaker() {
+        breaker.open();
+
+        breaker.close();
+
+        assertFalse(breaker.isOpen());
+        // a closed breaker counts from zero again
+        for (int i = 1; i < VM208CircuitBreaker.FAILURE_THRESHOLD; i++) {
+            assertFalse(breaker.recordFailure());
+        }
+        assertTrue(breaker.recordFailure());
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.handler;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.Test;
+import org.openhab.binding.vm208.internal.handler.VM208ExButtonBinding.Action;
+
+/**
+ * Tests which button bindings the {@link VM208ExButtonBinding} parser accepts.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class VM208ExButtonBindingTest {
+
+    @Test
+    public void bindingsAreParsed() {
+        List<VM208ExButtonBinding> bindings = VM208ExButtonBinding.parse("1:relay1:toggle, 2:led3:pulse:500");
+
+        assertEquals(2, bindings.size());
+        VM208ExButtonBinding toggle = bindings.get(0);
+        assertEquals(0, toggle.getButton());
+        assertEquals(VM208ExChannelTable.Kind.RELAY, toggle.getTarget());
+        assertEquals(0, toggle.getIndex());
+        assertEquals(Action.TOGGLE, toggle.getAction());
+
+        VM208ExButtonBinding pulse = bindings.get(1);
+        assertEquals(1, pulse.getButton());
+        assertEquals(VM208ExChannelTable.Kind.LED, pulse.getTarget());
+        assertEquals(2, pulse.getIndex());
+        assertEquals(Action.PULSE, pulse.getAction());
+        assertEquals(500, pulse.getPulseTime());
+    }
+
+    @Test
+    public void pulseTimeDefaults() {
+        VM208ExButtonBinding pulse = VM208ExButtonBinding.parse("1:relay1:pulse").get(0);
+
+        assertEquals(VM208ExButtonBinding.DEFAULT_PULSE_TIME, pulse.getPulseTime());
+    }
+
+    @Test
+    public void emptyBindingsAreAccepted() {
+        assertTrue(VM208ExButtonBinding.parse(null).isEmpty());
+        assertTrue(VM208ExButtonBinding.parse(" ").isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformedBindingIsRejected() {
+        VM208ExButtonBinding.parse("1:relay1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void timeOnToggleIsRejected() {
+        VM208ExButtonBinding.parse("1:relay1:toggle:500");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void timeOnOnIsRejected() {
+        VM208ExButtonBinding.parse("1:led1:on:500");
+    }
+
+    @Test
+    public void timeIsRejectedLikeAMalformedBinding() {
+        String malformed = message("1:relay1");
+        String timed = message("1:relay1:toggle:500");
+
+        assertEquals(malformed.replace("1:relay1", "1:relay1:toggle:500"), timed);
+    }
+
+    private static String message(String binding) {
+        try {
+            VM208ExButtonBinding.parse(binding);
+        } catch (IllegalArgumentException ex) {
+            return String.valueOf(ex.getMessage());
+        }
+        fail("'" + binding + "' was accepted");
+        return "";
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.handler;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.Test;
+
+/**
+ * Tests the windows and polls of the {@link VM208InterruptLimiter}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class VM208InterruptLimiterTest {
+
+    private static final int SOURCES = 5;
+    private static final int RATE_LIMIT = 5;
+    private static final int POLLING_INTERVAL = 100;
+
+    // nanoTime can be negative, the limiter only compares differences
+    private static final long START = -TimeUnit.SECONDS.toNanos(100);
+
+    private final VM208InterruptLimiter limiter = new VM208InterruptLimiter(SOURCES, RATE_LIMIT, POLLING_INTERVAL);
+
+    @Test
+    public void interruptsUpToTheLimitAreAdmitted() {
+        for (int i = 0; i < RATE_LIMIT; i++) {
+            assertEquals(0b01, limiter.admit(0b01, at(i * 10)));
+        }
+        assertEquals(0, limiter.getLimited());
+    }
+
+    @Test
+    public void interruptBeyondTheLimitLimitsTheSource() {
+        exceedLimit(0b01, 0);
+
+        assertEquals(0b01, limiter.getLimited());
+    }
+
+    @Test
+    public void countsStartOverInEveryWindow() {
+        for (int window = 0; window < 3; window++) {
+            for (int i = 0; i < RATE_LIMIT; i++) {
+                assertEquals(0b01, limiter.admit(0b01, at(window * 1000 + i * 10)));
+            }
+        }
+        assertEquals(0, limiter.getLimited());
+    }
+
+    @Test
+    public void limitedSourceIsServicedOncePerPollingInterval() {
+        long limitedAt = exceedLimit(0b01, 0);
+
+        assertEquals(0, limiter.admit(0b01, at(limitedAt + 50)));
+        assertEquals(0, limiter.admit(0b01, at(limitedAt + 99)));
+        assertEquals(0b01, limiter.admit(0b01, at(limitedAt + 100)));
+        assertEquals(0, limiter.admit(0b01, at(limitedAt + 150)));
+    }
+
+    @Test
+    public void limitedSourceIsPolledWithoutInterrupt() {
+        long limitedAt = exceedLimit(0b01, 0);
+
+        assertEquals(0b01, limiter.admit(0, at(limitedAt + 100)));
+    }
+
+    @Test
+    public void otherSourcesAreNotLimited() {
+        long limitedAt = exceedLimit(0b01, 0);
+
+        assertEquals(0b10, limiter.admit(0b11, at(limitedAt + 10)));
+        assertEquals(0b01, limiter.getLimited());
+    }
+
+    @Test
+    public void sourceQuietForAWindowIsNoLongerLimited() {
+        long limitedAt = exceedLimit(0b01, 0);
+
+        // still chattering at the polls of the first second
+        for (long time = limitedAt + 100; time < limitedAt + 1000; time += 100) {
+            limiter.admit(0b01, at(time));
+        }
+        long lastInterrupt = limitedAt + 900;
+        assertEquals(0b01, limiter.getLimited());
+
+        limiter.admit(0, at(lastInterrupt + 900));
+        assertEquals(0b01, limiter.getLimited());
+
+        limiter.admit(0, at(lastInterrupt + 1000));
+        assertEquals(0, limiter.getLimited());
+        assertEquals(0b01, limiter.admit(0b01, at(lastInterrupt + 1010)));
+    }
+
+    @Test
+    public void zeroRateLimitAdmitsEverything() {
+        VM208InterruptLimiter unlimited = new VM208InterruptLimiter(SOURCES, 0, POLLING_INTERVAL);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0b11111, unlimited.admit(0b11111, at(i)));
+        }
+        assertEquals(0, unlimited.getLimited());
+    }
+
+    /**
+     * Raises interrupts 1 ms apart until the source is limited.
+     *
+     * @return the time in milliseconds at which the source was limited
+     */
+    private long exceedLimit(int source, long startMillis) {
+        long time = startMillis;
+        for (int i = 0; i < RATE_LIMIT; i++) {
+            assertEquals(source, limiter.admit(source, at(time++)));
+        }
+        assertEquals(0, limiter.admit(source, at(time)));
+        return time;
+    }
+
+    private static long at(long millis) {
+        return START + TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
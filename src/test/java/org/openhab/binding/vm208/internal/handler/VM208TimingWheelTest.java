@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.handler;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link VM208TimingWheel} on a clock which only advances when the test says so.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class VM208TimingWheelTest {
+
+    private static final int TURN = VM208TimingWheel.WHEEL_SIZE * VM208TimingWheel.TICK;
+
+    /**
+     * Never runs the tick job, the test ticks the wheel itself
+     */
+    private static class ManualScheduler extends ScheduledThreadPoolExecutor {
+        private @Nullable ScheduledFuture<?> tickJob;
+
+        ManualScheduler() {
+            super(1);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(@Nullable Runnable command, long initialDelay, long period,
+                @Nullable TimeUnit unit) {
+            ScheduledFuture<?> job = schedule(() -> {
+            }, 1, TimeUnit.DAYS);
+            tickJob = job;
+            return job;
+        }
+
+        boolean isTicking() {
+            ScheduledFuture<?> job = tickJob;
+            return job != null && !job.isDone();
+        }
+    }
+
+    private static class Recorder implements VM208TimingWheel.Target {
+        private final List<int[]> writes = new ArrayList<>();
+
+        @Override
+        public void timersExpired(int outputImage, int changeMask) {
+            writes.add(new int[] { outputImage, changeMask });
+        }
+    }
+
+    private final AtomicLong clock = new AtomicLong();
+    private @NonNullByDefault({}) ManualScheduler scheduler;
+    private @NonNullByDefault({}) VM208TimingWheel wheel;
+
+    @Before
+    public void setUp() {
+        scheduler = new ManualScheduler();
+        wheel = new VM208TimingWheel(scheduler, clock::get);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void timerExpiresAfterItsDelay() {
+        Recorder target = new Recorder();
+        wheel.schedule(target, 0x00, 0x01, 100);
+
+        advance(90);
+        assertEquals(0, target.writes.size());
+
+        advance(10);
+        assertEquals(1, target.writes.size());
+        assertEquals(0x00, target.writes.get(0)[0]);
+        assertEquals(0x01, target.writes.get(0)[1]);
+    }
+
+    @Test
+    public void delayIsRoundedUpToTheNextTick() {
+        Recorder target = new Recorder();
+        wheel.schedule(target, 0x00, 0x01, VM208TimingWheel.TICK + 1);
+
+        advance(VM208TimingWheel.TICK);
+        assertEquals(0, target.writes.size());
+
+        advance(VM208TimingWheel.TICK);
+        assertEquals(1, target.writes.size());
+    }
+
+    @Test
+    public void timersOfTheSameTickAreMergedPerTarget() {
+        Recorder target = new Recorder();
+        Recorder other = new Recorder();
+        wheel.schedule(target, 0x00, 0x01, 50);
+        wheel.schedule(target, 0x02, 0x02, 50);
+        wheel.schedule(other, 0x00, 0x04, 50);
+
+        advance(50);
+
+        assertEquals(1, target.writes.size());
+        assertEquals(0x02, target.writes.get(0)[0]);
+        assertEquals(0x03, target.writes.get(0)[1]);
+        assertEquals(1, other.writes.size());
+    }
+
+    @Test
+    public void cancelledTimerDoesNotExpire() {
+        Recorder target = new Recorder();
+        VM208TimingWheel.Timer cancelled = wheel.schedule(target, 0x00, 0x01, 50);
+        VM208TimingWheel.Timer kept = wheel.schedule(target, 0x00, 0x02, 50);
+
+        cancelled.cancel();
+        assertFalse(cancelled.isPending());
+        assertTrue(kept.isPending());
+
+        advance(50);
+        assertEquals(1, target.writes.size());
+        assertEquals(0x02, target.writes.get(0)[1]);
+        assertFalse(kept.isPending());
+
+        // cancelling an expired timer does nothing
+        kept.cancel();
+    }
+
+    @Test
+    public void timerBeyondOneTurnWaitsForItsTurn() {
+        Recorder target = new Recorder();
+        // both timers hash into the same bucket
+        VM208TimingWheel.Timer late = wheel.schedule(target, 0x00, 0x01, TURN + 30);
+        wheel.schedule(target, 0x00, 0x02, 30);
+
+        advance(30);
+        assertEquals(1, target.writes.size());
+        assertEquals(0x02, target.writes.get(0)[1]);
+        assertTrue(late.isPending());
+
+        advance(TURN - 10);
+        assertEquals(1, target.writes.size());
+
+        advance(10);
+        assertEquals(2, target.writes.size());
+        assertEquals(0x01, target.writes.get(1)[1]);
+    }
+
+    @Test
+    public void lateTickCatchesUp() {
+        Recorder target = new Recorder();
+        wheel.schedule(target, 0x00, 0x01, 20);
+        wheel.schedule(target, 0x00, 0x02, 200);
+
+        advance(1000);
+
+        assertEquals(1, target.writes.size());
+        assertEquals(0x03, target.writes.get(0)[1]);
+    }
+
+    @Test
+    public void wheelOnlyTicksWhileTimersArePending() {
+        Recorder target = new Recorder();
+        assertFalse(scheduler.isTicking());
+
+        wheel.schedule(target, 0x00, 0x01, 20);
+        assertTrue(scheduler.isTicking());
+
+        advance(20);
+        assertFalse(scheduler.isTicking());
+
+        wheel.schedule(target, 0x00, 0x01, 20).cancel();
+        wheel.clear();
+        assertFalse(scheduler.isTicking());
+    }
+
+    @Test
+    public void idleWheelContinuesFromTheCurrentTick() {
+        Recorder target = new Recorder();
+        advance(10 * TURN);
+
+        wheel.schedule(target, 0x00, 0x01, 100);
+        advance(90);
+        assertEquals(0, target.writes.size());
+
+        advance(10);
+        assertEquals(1, target.writes.size());
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+        wheel.tick();
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.i2c;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.Test;
+import org.openhab.binding.vm208.internal.i2c.I2CMetrics.RegisterClass;
+
+/**
+ * Tests the budgets of the {@link I2CRetryPolicy}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class I2CRetryPolicyTest {
+
+    private final IOException failure = new IOException("No acknowledge");
+
+    @Test
+    public void noneNeverRetries() {
+        for (RegisterClass registerClass : RegisterClass.values()) {
+            assertGivesUp(I2CRetryPolicy.NONE, registerClass, 1, System.nanoTime());
+        }
+    }
+
+    @Test
+    public void firstRetryWaitsWithinTheBudget() throws IOException {
+        long start = System.nanoTime();
+
+        I2CRetryPolicy.DEFAULT.awaitRetry(RegisterClass.OUTPUT, 1, start, failure);
+    }
+
+    @Test
+    public void spentBudgetGivesUp() {
+        long fiveMillisAgo = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5);
+
+        assertGivesUp(I2CRetryPolicy.DEFAULT, RegisterClass.INPUT, 1, fiveMillisAgo);
+        assertGivesUp(I2CRetryPolicy.DEFAULT, RegisterClass.MUX, 1, fiveMillisAgo);
+    }
+
+    @Test
+    public void outputsHaveALongerBudgetThanInputs() throws IOException {
+        long fourMillisAgo = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(4);
+
+        // the first delay of the outputs is at most 1 ms, that of the inputs at least 0.25 ms
+        I2CRetryPolicy.DEFAULT.awaitRetry(RegisterClass.OUTPUT, 1, fourMillisAgo, failure);
+        long almostFiveMillisAgo = System.nanoTime() - TimeUnit.MICROSECONDS.toNanos(4_800);
+        assertGivesUp(I2CRetryPolicy.DEFAULT, RegisterClass.INPUT, 1, almostFiveMillisAgo);
+    }
+
+    @Test
+    public void retriesEndWithinTheBudget() {
+        long start = System.nanoTime();
+        int attempt = 1;
+        try {
+            while (true) {
+                I2CRetryPolicy.DEFAULT.awaitRetry(RegisterClass.INPUT, attempt, start, failure);
+                attempt++;
+            }
+        } catch (IOException ex) {
+            assertSame(failure, ex);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        assertTrue("Retried " + attempt + " times", attempt > 1);
+        // the last delay ends before the budget, only the scheduling of the thread can add to it
+        assertTrue("Retried for " + elapsed + " ns", elapsed < TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void interruptedThreadGivesUp() {
+        Thread.currentThread().interrupt();
+        try {
+            assertGivesUp(I2CRetryPolicy.DEFAULT, RegisterClass.OUTPUT, 1, System.nanoTime());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    private void assertGivesUp(I2CRetryPolicy policy, RegisterClass registerClass, int attempt, long start) {
+        try {
+            policy.awaitRetry(registerClass, attempt, start, failure);
+            fail("The " + registerClass + " transfer should not be retried");
+        } catch (IOException ex) {
+            assertSame(failure, ex);
+        }
+    }
+}
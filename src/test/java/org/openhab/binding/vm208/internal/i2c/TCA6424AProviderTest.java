@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.i2c;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.vm208.internal.i2c.simulation.SimulatedI2CBus;
+import org.openhab.binding.vm208.internal.i2c.simulation.SimulatedTCA6424A;
+import org.openhab.binding.vm208.internal.i2c.simulation.SimulatedTCA9544;
+
+/**
+ * Tests the {@link TCA6424AProvider} against a simulated card.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class TCA6424AProviderTest {
+
+    private static final int MUX_ADDRESS = 0x70;
+
+    private @NonNullByDefault({}) SimulatedI2CBus bus;
+    private @NonNullByDefault({}) StuckCard card;
+    private @NonNullByDefault({}) TCA6424AProvider provider;
+
+    /**
+     * A card whose reads come back with bit 0 of every byte inverted while it is stuck
+     */
+    private static class StuckCard extends SimulatedTCA6424A {
+        private volatile boolean stuck;
+
+        @Override
+        public synchronized int read() {
+            int value = super.read();
+            return stuck ? value ^ 0x01 : value;
+        }
+    }
+
+    /**
+     * A card whose seventh byte read comes back with bit 0 inverted, which is the first verification after the
+     * readStates() of a test
+     */
+    private static class StuckOnce extends SimulatedTCA6424A {
+        private int reads;
+
+        @Override
+        public synchronized int read() {
+            int value = super.read();
+            return ++reads == 7 ? value ^ 0x01 : value;
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        bus = new SimulatedI2CBus(1);
+        SimulatedTCA9544 mux = bus.addInterface(MUX_ADDRESS);
+        card = new StuckCard();
+        mux.setCard(1, card);
+        new TCA9544Provider(bus, MUX_ADDRESS, TCA9544Provider.DEFAULT_POLLING_TIME).changeChannel((byte) 1);
+
+        provider = new TCA6424AProvider(bus, SimulatedI2CBus.CARD_ADDRESS);
+        provider.setDirectionSettings(0x00, 0xFF, 0x00);
+        provider.readStates();
+        bus.resetTransactionCount();
+    }
+
+    @Test
+    public void directionSettingsReachTheCard() {
+        assertEquals(0x00FF00, card.getConfigurationImage());
+        assertEquals(0x00FF00, provider.getDirectionImage());
+    }
+
+    @Test
+    public void unchangedOutputsAreNotWritten() throws IOException {
+        provider.setOutputs(0xFFFFFF, 0xFFFFFF);
+        provider.setOutputs(0x000000, 0x000000);
+
+        assertEquals(0, bus.getTransactionCount());
+    }
+
+    @Test
+    public void singleDirtyBankIsWrittenAlone() throws IOException {
+        changeOutputsBehindProvider(0x00AA55);
+
+        provider.setOutputs(0x000000, 0x00FF00);
+
+        // banks 0 and 2 still hold the values written behind the back of the provider
+        assertEquals(1, bus.getTransactionCount());
+        assertEquals(0x000055, card.getOutputImage());
+        assertEquals(0xFF00FF, provider.getOutputImage());
+    }
+
+    @Test
+    public void banksBetweenDirtyBanksAreWrittenInTheSameBlock() throws IOException {
+        changeOutputsBehindProvider(0x00AA55);
+
+        provider.setOutputs(0x000000, 0x010001);
+
+        // bank 1 lies between the dirty banks and gets the cached value again
+        assertEquals(1, bus.getTransactionCount());
+        assertEquals(0xFEFFFE, card.getOutputImage());
+        assertEquals(0xFEFFFE, provider.getOutputImage());
+    }
+
+    @Test
+    public void failedTransfersAreRetried() throws IOException {
+        bus.failTransfers(2);
+
+        provider.setOutputs(0x000000, 0x0000FF);
+
+        assertEquals(3, bus.getTransactionCount());
+        assertEquals(0xFFFF00, card.getOutputImage());
+    }
+
+    @Test
+    public void failedWriteKeepsTheCachedOutputs() {
+        bus.failTransfers(Integer.MAX_VALUE);
+        try {
+            provider.setOutputs(0x000000, 0x0000FF);
+            fail("The write should fail");
+        } catch (IOException ex) {
+            assertEquals(0xFFFFFF, provider.getOutputImage());
+        }
+    }
+
+    @Test
+    public void noRetryPolicyTriesOnce() {
+        provider.setRetryPolicy(I2CRetryPolicy.NONE);
+        bus.failTransfers(1);
+        try {
+            provider.setOutputs(0x000000, 0x0000FF);
+            fail("The write should fail");
+        } catch (IOException ex) {
+            assertEquals(1, bus.getTransactionCount());
+        }
+    }
+
+    @Test
+    public void verifiedWriteReadsBackOnce() throws IOException {
+        provider.setVerifyWrites(true);
+
+        provider.setOutputs(0x000000, 0x00FF00);
+
+        assertEquals(2, bus.getTransactionCount());
+        assertEquals(0xFF00FF, provider.getOutputImage());
+    }
+
+    @Test
+    public void verifiedWriteMismatchIsWrittenAgainAndReported() throws IOException {
+        provider.setVerifyWrites(true);
+        card.stuck = true;
+
+        try {
+            provider.setOutputs(0x000000, 0x0000FF);
+            fail("The mismatch should be reported");
+        } catch (I2CVerifyException ex) {
+            // write, read back, write again, read back again
+            assertEquals(4, bus.getTransactionCount());
+            // the cache follows what was read back
+            assertEquals(0xFFFF01, provider.getOutputImage());
+        }
+    }
+
+    @Test
+    public void verifiedWriteMismatchWhichClearsIsAccepted() throws IOException {
+        provider.setVerifyWrites(true);
+        StuckOnce stuckOnce = new StuckOnce();
+        SimulatedTCA9544 mux = bus.getInterface(MUX_ADDRESS);
+        assertNotNull(mux);
+        mux.setCard(1, stuckOnce);
+        provider.readStates();
+        bus.resetTransactionCount();
+
+        provider.setOutputs(0x000000, 0x0000FF);
+
+        assertEquals(4, bus.getTransactionCount());
+        assertEquals(0xFFFF00, provider.getOutputImage());
+    }
+
+    private void changeOutputsBehindProvider(int outputImage) throws IOException {
+        TCA6424AProvider other = new TCA6424AProvider(bus, SimulatedI2CBus.CARD_ADDRESS);
+        other.readStates();
+        other.setOutputs(outputImage, 0xFFFFFF);
+        bus.resetTransactionCount();
+    }
+}
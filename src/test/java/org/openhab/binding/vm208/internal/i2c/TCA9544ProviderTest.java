@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.i2c;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.vm208.internal.i2c.simulation.SimulatedI2CBus;
+import org.openhab.binding.vm208.internal.i2c.simulation.SimulatedTCA9544;
+
+/**
+ * Tests the {@link TCA9544Provider} against a simulated multiplexer.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class TCA9544ProviderTest {
+
+    private static final int MUX_ADDRESS = 0x70;
+
+    private @NonNullByDefault({}) SimulatedI2CBus bus;
+    private @NonNullByDefault({}) SimulatedTCA9544 mux;
+    private @NonNullByDefault({}) TCA9544Provider provider;
+
+    @Before
+    public void setUp() throws IOException {
+        bus = new SimulatedI2CBus(1);
+        mux = bus.addInterface(MUX_ADDRESS);
+        provider = new TCA9544Provider(bus, MUX_ADDRESS, TCA9544Provider.DEFAULT_POLLING_TIME);
+    }
+
+    @Test
+    public void firstChangeReadsTheSelection() throws IOException {
+        provider.changeChannel((byte) 2);
+
+        assertEquals(2, bus.getTransactionCount());
+        assertEquals(2, mux.getSelectedSocket());
+    }
+
+    @Test
+    public void selectedChannelIsNotWrittenAgain() throws IOException {
+        provider.changeChannel((byte) 2);
+        bus.resetTransactionCount();
+
+        provider.changeChannel((byte) 2);
+
+        assertEquals(0, bus.getTransactionCount());
+    }
+
+    @Test
+    public void otherChannelIsWrittenOnce() throws IOException {
+        provider.changeChannel((byte) 2);
+        bus.resetTransactionCount();
+
+        provider.changeChannel((byte) 3);
+        provider.changeChannel((byte) 0);
+
+        assertEquals(2, bus.getTransactionCount());
+        assertEquals(0, mux.getSelectedSocket());
+    }
+
+    @Test
+    public void readingTheInterruptsLearnsTheSelection() throws IOException {
+        provider.readInterrupts();
+        bus.resetTransactionCount();
+
+        provider.changeChannel((byte) 1);
+
+        assertEquals(1, bus.getTransactionCount());
+    }
+
+    @Test
+    public void failedWriteForgetsTheSelection() throws IOException {
+        provider.changeChannel((byte) 2);
+        bus.failTransfers(Integer.MAX_VALUE);
+        try {
+            provider.changeChannel((byte) 3);
+            fail("The change should fail");
+        } catch (IOException ex) {
+            // expected
+        }
+        bus.failTransfers(0);
+        bus.resetTransactionCount();
+
+        provider.changeChannel((byte) 3);
+
+        // the control register is read before it is written again
+        assertEquals(2, bus.getTransactionCount());
+        assertEquals(3, mux.getSelectedSocket());
+    }
+
+    @Test
+    public void failedInterruptReadForgetsTheSelection() throws IOException {
+        provider.changeChannel((byte) 2);
+        bus.failTransfers(Integer.MAX_VALUE);
+        try {
+            provider.readInterrupts();
+            fail("The read should fail");
+        } catch (IOException ex) {
+            // expected
+        }
+        bus.failTransfers(0);
+        bus.resetTransactionCount();
+
+        provider.changeChannel((byte) 2);
+
+        assertEquals(1, bus.getTransactionCount());
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.i2c.simulation;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link SimulatedChip} interface is implemented by the register models of the simulated chips.
+ * A transfer always starts with the bytes written by the master, followed by the bytes read.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public interface SimulatedChip {
+
+    /**
+     * Receives a byte written by the master.
+     *
+     * @param first true for the first byte of the transfer
+     * @param value the byte
+     */
+    public void write(boolean first, int value);
+
+    /**
+     * Sends a byte to the master.
+     *
+     * @return the byte
+     */
+    public int read();
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.i2c.simulation;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.vm208.internal.i2c.HexUtils;
+
+import com.pi4j.io.i2c.I2CBus;
+import com.pi4j.io.i2c.I2CDevice;
+
+/**
+ * The {@link SimulatedI2CBus} is an in-memory I2C bus with VM208 interfaces on it.
+ * Every interface is a TCA9544A multiplexer with a TCA6424A card at 0x23 on each of its channels.
+ * Each transfer is counted and can be slowed down to the latency of a real bus.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SimulatedI2CBus implements I2CBus {
+
+    public static final int CARD_ADDRESS = 0x23;
+
+    private final int busNumber;
+    private final Map<Integer, SimulatedTCA9544> interfaces = new HashMap<>();
+    private final AtomicLong transactionCount = new AtomicLong();
+    private final AtomicInteger failingTransfers = new AtomicInteger();
+    private volatile long latencyNanos;
+
+    public SimulatedI2CBus(int busNumber) {
+        this.busNumber = busNumber;
+    }
+
+    /**
+     * Adds an interface with a card in every socket.
+     *
+     * @param address the address of the multiplexer
+     * @return the multiplexer of the interface
+     */
+    public synchronized SimulatedTCA9544 addInterface(int address) {
+        SimulatedTCA9544 mux = new SimulatedTCA9544();
+        for (int socket = 1; socket <= SimulatedTCA9544.CHANNELS; socket++) {
+            mux.setCard(socket, new SimulatedTCA6424A());
+        }
+        interfaces.put(address, mux);
+        return mux;
+    }
+
+    public synchronized @Nullable SimulatedTCA9544 getInterface(int address) {
+        return interfaces.get(address);
+    }
+
+    /**
+     * Sets the time every transfer takes.
+     *
+     * @param latency the latency, 0 for none
+     * @param unit the unit of the latency
+     */
+    public void setLatency(long latency, TimeUnit unit) {
+        this.latencyNanos = unit.toNanos(latency);
+    }
+
+    /**
+     * Returns the number of transfers since the creation or the last reset.
+     *
+     * @return the number of transfers
+     */
+    public long getTransactionCount() {
+        return transactionCount.get();
+    }
+
+    public void resetTransactionCount() {
+        transactionCount.set(0);
+    }
+
+    /**
+     * Lets the next transfers fail as if no chip acknowledged them, like a disturbed bus does.
+     *
+     * @param count the number of transfers which fail, 0 to stop failing
+     */
+    public void failTransfers(int count) {
+        failingTransfers.set(count);
+    }
+
+    @Override
+    public I2CDevice getDevice(int address) throws IOException {
+        return new SimulatedI2CDevice(this, address);
+    }
+
+    @Override
+    public int getBusNumber() {
+        return busNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // the simulated chips keep their state
+    }
+
+    /**
+     * Starts a transfer to the address, must be called while synchronized on the bus.
+     *
+     * @param address the address of the chip
+     * @return the chip acknowledging the address
+     * @throws IOException if no chip acknowledges the address
+     */
+    SimulatedChip beginTransfer(int address) throws IOException {
+        transactionCount.incrementAndGet();
+
+        long latency = latencyNanos;
+        if (latency > 0) {
+            long end = System.nanoTime() + latency;
+            long remaining;
+            while ((remaining = end - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+
+        if (failingTransfers.getAndUpdate(count -> Math.max(count - 1, 0)) > 0) {
+            throw new IOException("Simulated failure on 0x" + HexUtils.toHex(address));
+        }
+
+        SimulatedChip chip = interfaces.get(address);
+        if (chip == null && address == CARD_ADDRESS) {
+            // the card is only reachable through a selected channel
+            for (SimulatedTCA9544 mux : interfaces.values()) {
+                SimulatedTCA6424A card = mux.getSelectedCard();
+                if (card != null) {
+                    if (chip != null) {
+                        throw new IOException("Bus collision on 0x" + HexUtils.toHex(address));
+                    }
+                    chip = card;
+                }
+            }
+        }
+        if (chip == null) {
+            throw new IOException("No acknowledge from 0x" + HexUtils.toHex(address));
+        }
+        return chip;
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.i2c.simulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.pi4j.io.i2c.I2CDevice;
+
+/**
+ * The {@link SimulatedI2CDevice} is a device on the {@link SimulatedI2CBus}.
+ * Every method call is one transfer, like on the real bus.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SimulatedI2CDevice implements I2CDevice {
+
+    private final SimulatedI2CBus bus;
+    private final int address;
+
+    SimulatedI2CDevice(SimulatedI2CBus bus, int address) {
+        this.bus = bus;
+        this.address = address;
+    }
+
+    @Override
+    public int getAddress() {
+        return address;
+    }
+
+    @Override
+    public void write(byte b) throws IOException {
+        synchronized (bus) {
+            bus.beginTransfer(address).write(true, b & 0xFF);
+        }
+    }
+
+    @Override
+    public void write(byte @Nullable [] buffer, int offset, int size) throws IOException {
+        synchronized (bus) {
+            transfer(bus.beginTransfer(address), -1, buffer, offset, size, null, 0, 0);
+        }
+    }
+
+    @Override
+    public void write(byte @Nullable [] buffer) throws IOException {
+        write(buffer, 0, buffer == null ? 0 : buffer.length);
+    }
+
+    @Override
+    public void write(int register, byte b) throws IOException {
+        synchronized (bus) {
+            SimulatedChip chip = bus.beginTransfer(address);
+            chip.write(true, register & 0xFF);
+            chip.write(false, b & 0xFF);
+        }
+    }
+
+    @Override
+    public void write(int register, byte @Nullable [] buffer, int offset, int size) throws IOException {
+        synchronized (bus) {
+            transfer(bus.beginTransfer(address), register, buffer, offset, size, null, 0, 0);
+        }
+    }
+
+    @Override
+    public void write(int register, byte @Nullable [] buffer) throws IOException {
+        write(register, buffer, 0, buffer == null ? 0 : buffer.length);
+    }
+
+    @Override
+    public int read() throws IOException {
+        synchronized (bus) {
+            return bus.beginTransfer(address).read();
+        }
+    }
+
+    @Override
+    public int read(byte @Nullable [] buffer, int offset, int size) throws IOException {
+        synchronized (bus) {
+            return transfer(bus.beginTransfer(address), -1, null, 0, 0, buffer, offset, size);
+        }
+    }
+
+    @Override
+    public int read(int register) throws IOException {
+        synchronized (bus) {
+            SimulatedChip chip = bus.beginTransfer(address);
+            chip.write(true, register & 0xFF);
+            return chip.read();
+        }
+    }
+
+    @Override
+    public int read(int register, byte @Nullable [] buffer, int offset, int size) throws IOException {
+        synchronized (bus) {
+            return transfer(bus.beginTransfer(address), register, null, 0, 0, buffer, offset, size);
+        }
+    }
+
+    @Override
+    public int read(byte @Nullable [] writeBuffer, int writeOffset, int writeSize, byte @Nullable [] readBuffer,
+            int readOffset, int readSize) throws IOException {
+        synchronized (bus) {
+            return transfer(bus.beginTransfer(address), -1, writeBuffer, writeOffset, writeSize, readBuffer,
+                    readOffset, readSize);
+        }
+    }
+
+    @Override
+    public void ioctl(long command, int value) throws IOException {
+        throw new IOException("ioctl is not supported by the simulated bus");
+    }
+
+    @Override
+    public void ioctl(long command, @Nullable ByteBuffer data, @Nullable IntBuffer offsets) throws IOException {
+        throw new IOException("ioctl is not supported by the simulated bus");
+    }
+
+    private int transfer(SimulatedChip chip, int register, byte @Nullable [] writeBuffer, int writeOffset,
+            int writeSize, byte @Nullable [] readBuffer, int readOffset, int readSize) {
+        boolean first = true;
+        if (register >= 0) {
+            chip.write(true, register & 0xFF);
+            first = false;
+        }
+        if (writeBuffer != null) {
+            for (int i = 0; i < writeSize; i++) {
+                chip.write(first, writeBuffer[writeOffset + i] & 0xFF);
+                first = false;
+            }
+        }
+        if (readBuffer == null) {
+            return 0;
+        }
+        for (int i = 0; i < readSize; i++) {
+            readBuffer[readOffset + i] = (byte) chip.read();
+        }
+        return readSize;
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.i2c.simulation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import com.pi4j.io.i2c.I2CBus;
+import com.pi4j.io.i2c.I2CFactory;
+import com.pi4j.io.i2c.I2CFactoryProvider;
+
+/**
+ * The {@link SimulatedI2CFactoryProvider} makes {@link I2CFactory} return simulated buses,
+ * so the providers and handlers run unchanged without a Raspberry Pi.
+ * Every new bus gets an interface at {@link #DEFAULT_INTERFACE_ADDRESS} with four cards.
+ * Configure the bridge without interrupt pin, so it polls the simulated interface.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SimulatedI2CFactoryProvider implements I2CFactoryProvider {
+
+    public static final int DEFAULT_INTERFACE_ADDRESS = 0x70;
+
+    private final Map<Integer, SimulatedI2CBus> buses = new HashMap<>();
+
+    /**
+     * Installs a new simulation as the factory of all I2C buses.
+     *
+     * @return the installed simulation
+     */
+    public static SimulatedI2CFactoryProvider install() {
+        SimulatedI2CFactoryProvider provider = new SimulatedI2CFactoryProvider();
+        I2CFactory.setFactory(provider);
+        return provider;
+    }
+
+    /**
+     * Returns the simulated bus, creating it with the default interface on first use.
+     *
+     * @param busNumber the number of the bus
+     * @return the simulated bus
+     */
+    public synchronized SimulatedI2CBus getSimulatedBus(int busNumber) {
+        SimulatedI2CBus bus = buses.get(busNumber);
+        if (bus == null) {
+            bus = new SimulatedI2CBus(busNumber);
+            bus.addInterface(DEFAULT_INTERFACE_ADDRESS);
+            buses.put(busNumber, bus);
+        }
+        return bus;
+    }
+
+    @Override
+    public I2CBus getBus(int busNumber, long lockAquireTimeout, TimeUnit lockAquireTimeoutUnit) {
+        return getSimulatedBus(busNumber);
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.i2c.simulation;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link SimulatedTCA6424A} models the register file of the TCA6424A IO expander.
+ * It supports the auto-increment command bit, polarity inversion of the input
+ * registers and the input change interrupt.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SimulatedTCA6424A implements SimulatedChip {
+
+    private static final int AUTO_INCREMENT = 0x80;
+    private static final int PORTS = 3;
+
+    private final int[] output = new int[] { 0xFF, 0xFF, 0xFF };
+    private final int[] polarity = new int[PORTS];
+    private final int[] configuration = new int[] { 0xFF, 0xFF, 0xFF };
+
+    // Level applied to the pins from outside, buttons are pulled up
+    private final int[] external = new int[] { 0xFF, 0xFF, 0xFF };
+
+    // Pin levels at the last read of every input register
+    private final int[] lastReadLevels = new int[] { 0xFF, 0xFF, 0xFF };
+
+    private int command = 0;
+
+    /**
+     * Applies a level to a pin from outside, like a button which is pressed.
+     * Only pins configured as input follow this level.
+     *
+     * @param pin the pin 0-23
+     * @param high the level
+     */
+    public synchronized void setInput(int pin, boolean high) {
+        int port = pin / 8;
+        int bit = 1 << (pin % 8);
+        external[port] = high ? external[port] | bit : external[port] & ~bit;
+    }
+
+    /**
+     * Returns the output registers as one packed image.
+     *
+     * @return port 0 in bits 0-7, port 1 in bits 8-15 and port 2 in bits 16-23
+     */
+    public synchronized int getOutputImage() {
+        return output[0] | (output[1] << 8) | (output[2] << 16);
+    }
+
+    /**
+     * Returns the configuration registers as one packed image, a set bit is an input.
+     *
+     * @return port 0 in bits 0-7, port 1 in bits 8-15 and port 2 in bits 16-23
+     */
+    public synchronized int getConfigurationImage() {
+        return configuration[0] | (configuration[1] << 8) | (configuration[2] << 16);
+    }
+
+    /**
+     * Is the interrupt line asserted?
+     * An input pin which changed since its input register was read asserts the line.
+     *
+     * @return true if asserted
+     */
+    public synchronized boolean isInterruptAsserted() {
+        for (int port = 0; port < PORTS; port++) {
+            if (((level(port) ^ lastReadLevels[port]) & configuration[port]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized void write(boolean first, int value) {
+        if (first) {
+            command = value & 0xFF;
+            return;
+        }
+
+        int register = command & 0x0F;
+        int port = register & 0x03;
+        if (port < PORTS) {
+            switch (register >> 2) {
+                case 1:
+                    output[port] = value & 0xFF;
+                    break;
+                case 2:
+                    polarity[port] = value & 0xFF;
+                    break;
+                case 3:
+                    configuration[port] = value & 0xFF;
+                    break;
+                default:
+                    // input registers are read only
+                    break;
+            }
+        }
+        advance();
+    }
+
+    @Override
+    public synchronized int read() {
+        int register = command & 0x0F;
+        int port = register & 0x03;
+        int value = 0xFF;
+        if (port < PORTS) {
+            switch (register >> 2) {
+                case 0:
+                    int level = level(port);
+                    lastReadLevels[port] = level;
+                    value = level ^ polarity[port];
+                    break;
+                case 1:
+                    value = output[port];
+                    break;
+                case 2:
+                    value = polarity[port];
+                    break;
+                case 3:
+                    value = configuration[port];
+                    break;
+                default:
+                    break;
+            }
+        }
+        advance();
+        return value & 0xFF;
+    }
+
+    private int level(int port) {
+        // output pins drive their own level
+        return (external[port] & configuration[port]) | (output[port] & ~configuration[port] & 0xFF);
+    }
+
+    private void advance() {
+        if ((command & AUTO_INCREMENT) != 0) {
+            // roll over within the group of three registers
+            int group = command & 0x0C;
+            int port = ((command & 0x03) + 1) % PORTS;
+            command = AUTO_INCREMENT | group | port;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.vm208.internal.i2c.simulation;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link SimulatedTCA9544} models the control register of the TCA9544A multiplexer.
+ * Bits 0-1 select the channel, bit 2 enables it and bits 4-7 reflect the interrupt
+ * lines of the four channels.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SimulatedTCA9544 implements SimulatedChip {
+
+    public static final int CHANNELS = 4;
+
+    private final @Nullable SimulatedTCA6424A[] cards = new @Nullable SimulatedTCA6424A[CHANNELS];
+
+    private int control = 0;
+
+    /**
+     * Plugs a card into the socket, or removes it.
+     *
+     * @param socket the socket 1-4
+     * @param card the card, null to leave the socket empty
+     */
+    public void setCard(int socket, @Nullable SimulatedTCA6424A card) {
+        cards[socket - 1] = card;
+    }
+
+    public @Nullable SimulatedTCA6424A getCard(int socket) {
+        return cards[socket - 1];
+    }
+
+    /**
+     * Returns the card which is currently connected to the downstream bus.
+     *
+     * @return the card on the selected channel, null if none is selected or the socket is empty
+     */
+    public @Nullable SimulatedTCA6424A getSelectedCard() {
+        if ((control & 0b100) == 0) {
+            return null;
+        }
+        return cards[control & 0b011];
+    }
+
+    /**
+     * Returns the selected socket.
+     *
+     * @return the socket 1-4, 0 if no channel is enabled
+     */
+    public int getSelectedSocket() {
+        return (control & 0b100) == 0 ? 0 : (control & 0b011) + 1;
+    }
+
+    @Override
+    public void write(boolean first, int value) {
+        // the register has no address, every byte overwrites the control bits
+        control = value & 0b111;
+    }
+
+    @Override
+    public int read() {
+        int interrupts = 0;
+        for (int i = 0; i < CHANNELS; i++) {
+            SimulatedTCA6424A card = cards[i];
+            if (card != null && card.isInterruptAsserted()) {
+                interrupts |= 1 << i;
+            }
+        }
+        return (interrupts << 4) | control;
+    }
+}